@@ -0,0 +1,149 @@
+package com.orionhotel.controller;
+
+import com.orionhotel.database.DatabaseConnection;
+import com.orionhotel.model.Reservation;
+import com.orionhotel.model.Room;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+// Report data for the Analytics screen. Each report is computed on first request and the
+// result is kept for the configured TTL, so switching in and out of Analytics doesn't re-run
+// every query. invalidate() makes the next request recompute regardless of age.
+//
+// Reports use the controllers' throwing query variants, so a failed query throws from the
+// getter (IllegalStateException) and nothing is kept; an empty report is a real one and is
+// cached like any other.
+public class AnalyticsController {
+
+    private final RoomController roomController;
+    private final BillingController billingController;
+    private final InventoryController inventoryController;
+    private final BookingController bookingController;
+
+    private final Cached<Overview> overview = new Cached<>(this::computeOverview);
+    private final Cached<Map<Room.RoomStatus, Long>> occupancy;
+    private final Cached<Map<YearMonth, Double>> revenueTrend;
+    private final Cached<List<InventoryController.ItemUsage>> inventoryUsage;
+
+    public static class Overview {
+        public final int totalRooms;
+        public final int occupied;
+        public final double monthlyRevenue;
+        public final int lowStockCount;
+        public final int cancelledBookings;
+
+        public Overview(int totalRooms, int occupied, double monthlyRevenue, int lowStockCount,
+                int cancelledBookings) {
+            this.totalRooms = totalRooms;
+            this.occupied = occupied;
+            this.monthlyRevenue = monthlyRevenue;
+            this.lowStockCount = lowStockCount;
+            this.cancelledBookings = cancelledBookings;
+        }
+    }
+
+    // A computed report and when it was computed
+    public static class Snapshot<T> {
+        public final T data;
+        public final LocalDateTime computedAt;
+
+        public Snapshot(T data, LocalDateTime computedAt) {
+            this.data = data;
+            this.computedAt = computedAt;
+        }
+    }
+
+    public AnalyticsController(RoomController rc, BillingController bc, InventoryController ic,
+            BookingController bkc) {
+        this.roomController = rc;
+        this.billingController = bc;
+        this.inventoryController = ic;
+        this.bookingController = bkc;
+        this.occupancy = new Cached<>(roomController::queryRoomStatusCounts);
+        this.revenueTrend = new Cached<>(() -> billingController.queryTrailingMonthlyRevenue(6));
+        this.inventoryUsage = new Cached<>(inventoryController::queryMostUsedItems);
+    }
+
+    // All getters block while computing, so call them off the FX thread. They throw
+    // IllegalStateException when the report's queries fail.
+    public Snapshot<Overview> getOverview() {
+        return overview.get();
+    }
+
+    public Snapshot<Map<Room.RoomStatus, Long>> getOccupancy() {
+        return occupancy.get();
+    }
+
+    // Last 6 months, oldest first
+    public Snapshot<Map<YearMonth, Double>> getRevenueTrend() {
+        return revenueTrend.get();
+    }
+
+    public Snapshot<List<InventoryController.ItemUsage>> getInventoryUsage() {
+        return inventoryUsage.get();
+    }
+
+    // Marks every report stale; each is recomputed the next time it is requested
+    public void invalidate() {
+        overview.invalidate();
+        occupancy.invalidate();
+        revenueTrend.invalidate();
+        inventoryUsage.invalidate();
+    }
+
+    private Overview computeOverview() throws SQLException {
+        Map<Room.RoomStatus, Long> counts = roomController.queryRoomStatusCounts();
+        int total = 0;
+        for (long n : counts.values()) {
+            total += (int) n;
+        }
+        int occupied = counts.getOrDefault(Room.RoomStatus.OCCUPIED, 0L).intValue();
+        LocalDate today = LocalDate.now();
+        LocalDate firstOfMonth = today.withDayOfMonth(1);
+        return new Overview(total, occupied,
+                billingController.queryRevenue(firstOfMonth, firstOfMonth.plusMonths(1)),
+                inventoryController.queryLowStockItems().size(),
+                bookingController.queryReservationCount(Reservation.Status.CANCELLED));
+    }
+
+    // One report: computed on demand, reused until the TTL passes or it is invalidated.
+    // Concurrent requests for a stale report wait for a single computation. A failed
+    // computation keeps nothing, so the next request tries again.
+    private interface Report<T> {
+        T compute() throws SQLException;
+    }
+
+    private static final class Cached<T> {
+        private final Report<T> report;
+        private Snapshot<T> snapshot;
+        private long expiresAt;
+
+        Cached(Report<T> report) {
+            this.report = report;
+        }
+
+        synchronized Snapshot<T> get() {
+            if (snapshot != null && System.currentTimeMillis() < expiresAt)
+                return snapshot;
+            T data;
+            try {
+                data = report.compute();
+            } catch (SQLException e) {
+                snapshot = null;
+                throw new IllegalStateException(e);
+            }
+            snapshot = new Snapshot<>(data, LocalDateTime.now());
+            long ttlSeconds = DatabaseConnection.getConfig().getAnalyticsCacheTtlSeconds();
+            expiresAt = ttlSeconds > 0 ? System.currentTimeMillis() + ttlSeconds * 1000 : Long.MAX_VALUE;
+            return snapshot;
+        }
+
+        synchronized void invalidate() {
+            snapshot = null;
+        }
+    }
+}
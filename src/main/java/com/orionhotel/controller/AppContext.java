@@ -0,0 +1,138 @@
+package com.orionhotel.controller;
+
+import com.orionhotel.database.DatabaseConnection;
+
+import java.time.LocalDate;
+
+// Owns the one instance of each controller for the running application, created on first
+// use and wired to its collaborators. Screens get their controllers from here (through their
+// constructors), so every screen sees the same caches and indexes and switching screens
+// doesn't rebuild controller graphs.
+public final class AppContext {
+
+    private static final AppContext INSTANCE = new AppContext();
+
+    private NotificationController notificationController;
+    private SettingsController settingsController;
+    private RoomController roomController;
+    private GuestController guestController;
+    private BookingController bookingController;
+    private StaffController staffController;
+    private HousekeepingController housekeepingController;
+    private InventoryController inventoryController;
+    private BillingController billingController;
+    private AnalyticsController analyticsController;
+    private DashboardService dashboardService;
+    private ImportController importController;
+    private boolean jobsStarted;
+
+    private AppContext() {
+    }
+
+    public static AppContext get() {
+        return INSTANCE;
+    }
+
+    public synchronized NotificationController getNotificationController() {
+        if (notificationController == null) {
+            notificationController = new NotificationController();
+            notificationController.setDashboardService(getDashboardService());
+        }
+        return notificationController;
+    }
+
+    public synchronized SettingsController getSettingsController() {
+        if (settingsController == null)
+            settingsController = new SettingsController();
+        return settingsController;
+    }
+
+    public synchronized RoomController getRoomController() {
+        if (roomController == null) {
+            roomController = new RoomController();
+            roomController.setDashboardService(getDashboardService());
+        }
+        return roomController;
+    }
+
+    public synchronized GuestController getGuestController() {
+        if (guestController == null)
+            guestController = new GuestController(getRoomController());
+        return guestController;
+    }
+
+    public synchronized BookingController getBookingController() {
+        if (bookingController == null) {
+            bookingController = new BookingController(getRoomController());
+            bookingController.setNotificationController(getNotificationController());
+            bookingController.setDashboardService(getDashboardService());
+        }
+        return bookingController;
+    }
+
+    public synchronized StaffController getStaffController() {
+        if (staffController == null)
+            staffController = new StaffController();
+        return staffController;
+    }
+
+    public synchronized HousekeepingController getHousekeepingController() {
+        if (housekeepingController == null) {
+            housekeepingController = new HousekeepingController(getRoomController());
+            housekeepingController.setNotificationController(getNotificationController());
+            housekeepingController.setDashboardService(getDashboardService());
+        }
+        return housekeepingController;
+    }
+
+    public synchronized InventoryController getInventoryController() {
+        if (inventoryController == null) {
+            inventoryController = new InventoryController();
+            inventoryController.setNotificationController(getNotificationController());
+        }
+        return inventoryController;
+    }
+
+    public synchronized BillingController getBillingController() {
+        if (billingController == null) {
+            billingController = new BillingController(getGuestController());
+            billingController.setSettingsController(getSettingsController());
+            billingController.setRoomController(getRoomController());
+        }
+        return billingController;
+    }
+
+    public synchronized AnalyticsController getAnalyticsController() {
+        if (analyticsController == null)
+            analyticsController = new AnalyticsController(getRoomController(), getBillingController(),
+                    getInventoryController(), getBookingController());
+        return analyticsController;
+    }
+
+    public synchronized DashboardService getDashboardService() {
+        if (dashboardService == null)
+            dashboardService = new DashboardService();
+        return dashboardService;
+    }
+
+    public synchronized ImportController getImportController() {
+        if (importController == null)
+            importController = new ImportController(getRoomController(), getBookingController(),
+                    getDashboardService());
+        return importController;
+    }
+
+    // Scheduled work that must run once per application, however often the main window opens
+    public synchronized void startScheduledJobs() {
+        if (jobsStarted)
+            return;
+        jobsStarted = true;
+        getBookingController().startAvailabilityIndex();
+        // Night audit: post room charges for every in-house guest
+        getSettingsController().scheduleDaily(2, 0, () -> getBillingController().runNightAudit(LocalDate.now()));
+        // Accounting extract of yesterday's rows, when an export directory is configured
+        if (!DatabaseConnection.getConfig().getExportDir().isEmpty())
+            getSettingsController().scheduleDaily(3, 0,
+                    () -> getSettingsController().runNightlyExport(LocalDate.now().minusDays(1)));
+    }
+}
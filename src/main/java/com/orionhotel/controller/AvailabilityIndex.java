@@ -0,0 +1,348 @@
+package com.orionhotel.controller;
+
+import com.orionhotel.database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Active reservations (not CANCELLED/COMPLETED) held in memory so availability checks
+// don't query the database per room. Stays are half-open day ranges [check_in, check_out),
+// kept per room sorted by check-in.
+//
+// start() builds the index in the background when the application starts and rebuilds it
+// every configured TTL so other desks' reservations show up. A rebuild reads the table
+// without holding the index lock and then swaps the new snapshot in; checks keep answering
+// from the old one meanwhile, so none of them waits for a reload. BookingController's own
+// writes are applied on commit, and also replayed onto a snapshot that was being built
+// while they happened.
+//
+// Until a load succeeds there is no snapshot and checks throw IllegalStateException rather
+// than report every room free; a failed first load is retried every RETRY_SECONDS.
+final class AvailabilityIndex {
+
+    private static final long RETRY_SECONDS = 5;
+
+    private static final class Stay {
+        final int reservationId;
+        Integer roomNumber; // null until a room is assigned
+        String roomType;
+        long start; // epoch days
+        long end;
+
+        Stay(int reservationId, Integer roomNumber, String roomType, long start, long end) {
+            this.reservationId = reservationId;
+            this.roomNumber = roomNumber;
+            this.roomType = roomType;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static final class Snapshot {
+        final Map<Integer, Stay> byId = new HashMap<>();
+        final Map<Integer, List<Stay>> byRoom = new HashMap<>();
+        // A write referred to a reservation this snapshot doesn't hold (another desk's)
+        boolean incomplete;
+
+        void add(int reservationId, Integer roomNumber, String roomType, long start, long end) {
+            remove(reservationId);
+            Stay stay = new Stay(reservationId, roomNumber, roomType, start, end);
+            byId.put(reservationId, stay);
+            link(stay);
+        }
+
+        void remove(int reservationId) {
+            Stay stay = byId.remove(reservationId);
+            if (stay != null)
+                unlink(stay);
+        }
+
+        void assignRoom(int reservationId, int roomNumber) {
+            Stay stay = byId.get(reservationId);
+            if (stay == null) {
+                incomplete = true;
+                return;
+            }
+            unlink(stay);
+            stay.roomNumber = roomNumber;
+            link(stay);
+        }
+
+        void reschedule(int reservationId, long start, long end, String roomType) {
+            Stay stay = byId.get(reservationId);
+            if (stay == null) {
+                incomplete = true;
+                return;
+            }
+            unlink(stay);
+            stay.start = start;
+            stay.end = end;
+            stay.roomType = roomType;
+            link(stay);
+        }
+
+        boolean isFree(int roomNumber, long start, long end) {
+            List<Stay> stays = byRoom.get(roomNumber);
+            if (stays == null)
+                return true;
+            for (Stay s : stays) {
+                if (s.start >= end)
+                    break; // sorted by check-in; nothing later can overlap
+                if (s.end > start)
+                    return false;
+            }
+            return true;
+        }
+
+        private void link(Stay stay) {
+            if (stay.roomNumber == null)
+                return;
+            List<Stay> stays = byRoom.computeIfAbsent(stay.roomNumber, k -> new ArrayList<>());
+            int i = stays.size();
+            while (i > 0 && stays.get(i - 1).start > stay.start) {
+                i--;
+            }
+            stays.add(i, stay);
+        }
+
+        private void unlink(Stay stay) {
+            if (stay.roomNumber == null)
+                return;
+            List<Stay> stays = byRoom.get(stay.roomNumber);
+            if (stays != null)
+                stays.remove(stay);
+        }
+    }
+
+    private final Object buildLock = new Object();
+    private ScheduledExecutorService refresher;
+    // Guarded by this
+    private Snapshot current;
+    private List<Consumer<Snapshot>> pendingWrites; // non-null while a rebuild runs
+    private boolean retryScheduled;
+
+    // Builds the index now in the background and rebuilds it every TTL; idempotent
+    synchronized void start() {
+        if (refresher != null)
+            return;
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "orion-availability-index");
+            t.setDaemon(true);
+            return t;
+        });
+        long ttlSeconds = DatabaseConnection.getConfig().getAvailabilityCacheTtlSeconds();
+        if (ttlSeconds > 0) {
+            refresher.scheduleWithFixedDelay(this::rebuild, 0, ttlSeconds, TimeUnit.SECONDS);
+        } else {
+            refresher.execute(this::rebuild);
+        }
+    }
+
+    boolean isFree(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        awaitFirstBuild();
+        synchronized (this) {
+            return loaded().isFree(roomNumber, checkIn.toEpochDay(), checkOut.toEpochDay());
+        }
+    }
+
+    boolean anyFree(Collection<Integer> roomNumbers, LocalDate checkIn, LocalDate checkOut) {
+        awaitFirstBuild();
+        long start = checkIn.toEpochDay();
+        long end = checkOut.toEpochDay();
+        synchronized (this) {
+            Snapshot snapshot = loaded();
+            for (int roomNumber : roomNumbers) {
+                if (snapshot.isFree(roomNumber, start, end))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    // Adds +1 on the first night and -1 after the last night of every stay inside the window
+    // to a per-type difference array (row width nights + 1); a running sum gives booked rooms.
+    // Stays on a known room count against that room's type, unassigned ones against the
+    // requested type.
+    void markBookedNights(Map<Integer, Integer> rowOfRoom, Map<String, Integer> rowOfType,
+            LocalDate from, int nights, int[] diff) {
+        awaitFirstBuild();
+        long first = from.toEpochDay();
+        long last = first + nights;
+        int width = nights + 1;
+        synchronized (this) {
+            for (Stay s : loaded().byId.values()) {
+                long lo = Math.max(s.start, first);
+                long hi = Math.min(s.end, last);
+                if (lo >= hi)
+                    continue;
+                Integer row = s.roomNumber != null ? rowOfRoom.get(s.roomNumber) : null;
+                if (row == null && s.roomType != null)
+                    row = rowOfType.get(s.roomType);
+                if (row == null)
+                    continue;
+                diff[row * width + (int) (lo - first)]++;
+                diff[row * width + (int) (hi - first)]--;
+            }
+        }
+    }
+
+    void add(int reservationId, Integer roomNumber, String roomType, LocalDate checkIn, LocalDate checkOut) {
+        long start = checkIn.toEpochDay();
+        long end = checkOut.toEpochDay();
+        write(s -> s.add(reservationId, roomNumber, roomType, start, end));
+    }
+
+    void assignRoom(int reservationId, int roomNumber) {
+        write(s -> s.assignRoom(reservationId, roomNumber));
+    }
+
+    void reschedule(int reservationId, LocalDate checkIn, LocalDate checkOut, String roomType) {
+        long start = checkIn.toEpochDay();
+        long end = checkOut.toEpochDay();
+        write(s -> s.reschedule(reservationId, start, end, roomType));
+    }
+
+    void remove(int reservationId) {
+        write(s -> s.remove(reservationId));
+    }
+
+    // Rebuilds from the table on the calling thread, for callers that just wrote it directly
+    void invalidate() {
+        rebuild();
+    }
+
+    private void write(Consumer<Snapshot> change) {
+        boolean incomplete;
+        synchronized (this) {
+            if (pendingWrites != null)
+                pendingWrites.add(change);
+            if (current == null)
+                return; // the first build reads it from the table
+            change.accept(current);
+            incomplete = current.incomplete;
+            current.incomplete = false; // one rebuild per miss
+        }
+        if (incomplete)
+            requestRebuild();
+    }
+
+    private void requestRebuild() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = refresher;
+        }
+        if (executor != null) {
+            executor.execute(this::rebuild);
+        } else {
+            rebuild();
+        }
+    }
+
+    // Only the very first check can find no snapshot; it builds one rather than wait for start()
+    private void awaitFirstBuild() {
+        synchronized (this) {
+            if (current != null)
+                return;
+        }
+        synchronized (buildLock) {
+            boolean built;
+            synchronized (this) {
+                built = current != null; // start()'s build finished while this waited
+            }
+            if (!built)
+                rebuild();
+        }
+    }
+
+    // Caller holds this
+    private Snapshot loaded() {
+        if (current == null)
+            throw new IllegalStateException("Availability index could not be loaded");
+        return current;
+    }
+
+    private void rebuild() {
+        synchronized (buildLock) {
+            synchronized (this) {
+                pendingWrites = new ArrayList<>();
+            }
+            Snapshot fresh;
+            try {
+                fresh = load();
+            } catch (SQLException e) {
+                e.printStackTrace(); // keep answering from the old snapshot; the next rebuild retries
+                synchronized (this) {
+                    pendingWrites = null;
+                    if (current == null)
+                        scheduleRetry();
+                }
+                return;
+            }
+            synchronized (this) {
+                // Commits the query may have missed; each change is safe to apply twice
+                for (Consumer<Snapshot> change : pendingWrites) {
+                    change.accept(fresh);
+                }
+                fresh.incomplete = false;
+                pendingWrites = null;
+                current = fresh;
+            }
+        }
+    }
+
+    // Caller holds this. Without a snapshot nothing can be answered, so don't wait for the TTL
+    // (or, with no TTL, for a restart)
+    private void scheduleRetry() {
+        if (refresher == null || retryScheduled)
+            return;
+        retryScheduled = true;
+        refresher.schedule(() -> {
+            synchronized (this) {
+                retryScheduled = false;
+            }
+            rebuild();
+        }, RETRY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static Snapshot load() throws SQLException {
+        Snapshot snapshot = new Snapshot();
+        String sql = "SELECT reservation_id, room_number, room_type, check_in, check_out FROM reservations "
+                + "WHERE status NOT IN ('CANCELLED', 'COMPLETED')";
+        // Own connection so a load inside a Tx only ever sees committed reservations
+        try (Connection conn = DatabaseConnection.getPool().getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                int roomNumber = rs.getInt("room_number");
+                Integer room = rs.wasNull() ? null : roomNumber;
+                Date checkIn = rs.getDate("check_in");
+                Date checkOut = rs.getDate("check_out");
+                if (checkIn == null || checkOut == null)
+                    continue;
+                Stay stay = new Stay(rs.getInt("reservation_id"), room, rs.getString("room_type"),
+                        checkIn.toLocalDate().toEpochDay(), checkOut.toLocalDate().toEpochDay());
+                snapshot.byId.put(stay.reservationId, stay);
+                if (room != null)
+                    snapshot.byRoom.computeIfAbsent(room, k -> new ArrayList<>()).add(stay);
+            }
+        }
+        for (List<Stay> stays : snapshot.byRoom.values()) {
+            stays.sort((a, b) -> Long.compare(a.start, b.start));
+        }
+        return snapshot;
+    }
+}
@@ -1,19 +1,90 @@
 package com.orionhotel.controller;
 
 import com.orionhotel.database.DatabaseConnection;
+import com.orionhotel.database.KeysetQuery;
+import com.orionhotel.database.QueryStream;
+import com.orionhotel.database.RevenueRollup;
+import com.orionhotel.database.Tx;
 import com.orionhotel.model.Bill;
 import com.orionhotel.model.Guest;
+import com.orionhotel.model.Money;
+import com.orionhotel.model.Page;
+import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 public class BillingController {
 
+    private static final int DIGITS = Money.digits(Money.DEFAULT_CURRENCY);
+    private static final int FOLIO_BATCH = 500;
+
+    public static class NightAuditResult {
+        public final LocalDate auditDate;
+        public final int guests;
+        public final int billsUpdated;
+        public final int billsCreated;
+        public final long queryMillis;
+        public final long totalMillis;
+        public final String error; // null when the run committed
+
+        public NightAuditResult(LocalDate auditDate, int guests, int billsUpdated, int billsCreated, long queryMillis,
+                long totalMillis, String error) {
+            this.auditDate = auditDate;
+            this.guests = guests;
+            this.billsUpdated = billsUpdated;
+            this.billsCreated = billsCreated;
+            this.queryMillis = queryMillis;
+            this.totalMillis = totalMillis;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            return auditDate + ": " + guests + " in-house guest(s), " + billsUpdated + " bill(s) updated, "
+                    + billsCreated + " created in " + totalMillis + " ms (query " + queryMillis + " ms)"
+                    + (error != null ? ", FAILED: " + error : "");
+        }
+    }
+
+    public static class TotalsCheck {
+        public final int billsChecked;
+        public final int mismatched;
+        public final int repaired;
+        public final int paidMismatched; // reported only; a paid bill is never rewritten
+
+        public TotalsCheck(int billsChecked, int mismatched, int repaired, int paidMismatched) {
+            this.billsChecked = billsChecked;
+            this.mismatched = mismatched;
+            this.repaired = repaired;
+            this.paidMismatched = paidMismatched;
+        }
+    }
+
+    // Open bills joined with their charges; callers append the guest predicate and FOLIO_ORDER
+    private static final String FOLIO_SELECT = "SELECT b.*, sc.charge_id, sc.service_type, sc.amount AS charge_amount, "
+            + "sc.charge_date FROM bills b LEFT JOIN service_charges sc ON sc.bill_id = b.bill_id "
+            + "WHERE b.status != 'PAID' AND ";
+    private static final String FOLIO_ORDER = " ORDER BY b.guest_id, b.bill_id, sc.charge_id";
+
+    private static volatile NightAuditResult lastNightAudit;
+
     private GuestController guestController;
     private SettingsController settingsController;
     private RoomController roomController;
+    private final KeysetQuery<Bill> billPages = new KeysetQuery<>("bills", "bill_id", this::mapResultSetToBill);
 
     public BillingController(GuestController guestController) {
         this.guestController = guestController;
@@ -30,29 +101,30 @@ public class BillingController {
     public void generateBillForGuest(int guestId) {
         Guest guest = guestController.findGuestById(guestId);
         if (guest != null) {
-            Bill existing = getBillForGuest(guestId);
-            if (existing != null) {
-                updateRoomCharges(existing, guest);
-                saveBill(existing);
-                return;
-            }
+            try {
+                Tx.run(conn -> {
+                    Bill existing = loadOpenBill(conn, guestId, true);
+                    if (existing != null) {
+                        updateRoomCharges(existing, guest);
+                        saveBill(existing);
+                        return;
+                    }
 
-            Bill bill = new Bill(0, guestId, guest.getFullName());
-            bill.setBillDate(LocalDate.now());
-            updateRoomCharges(bill, guest);
-            insertBill(bill);
+                    Bill bill = new Bill(0, guestId, guest.getFullName());
+                    bill.setBillDate(LocalDate.now());
+                    updateRoomCharges(bill, guest);
+                    insertBill(bill);
+                });
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
         }
     }
 
     private void updateRoomCharges(Bill bill, Guest guest) {
-        long nights = 1;
-        if (guest.getCheckInDate() != null) {
-            LocalDate end = (guest.getStatus() == Guest.GuestStatus.CHECKED_OUT) ? guest.getCheckOutDate()
-                    : LocalDate.now();
-            nights = ChronoUnit.DAYS.between(guest.getCheckInDate(), end);
-            if (nights <= 0)
-                nights = 1;
-        }
+        LocalDate end = (guest.getStatus() == Guest.GuestStatus.CHECKED_OUT) ? guest.getCheckOutDate()
+                : LocalDate.now();
+        long nights = nightsBetween(guest.getCheckInDate(), end);
 
         double dailyRate = 100.0;
         if (settingsController != null && roomController != null && guest.getRoomNumber() != null) {
@@ -61,113 +133,397 @@ public class BillingController {
                 dailyRate = settingsController.getSettings().getRoomPrice(room.getType());
             }
         }
-        bill.setRoomCharges(nights * dailyRate);
-        bill.recalculateTotal(getTaxRate());
+        bill.setRoomChargesMinor(Math.multiplyExact(nights, Money.toMinor(dailyRate, DIGITS)));
+        bill.recalculateTotal(getTaxRatePpm(), Money.DEFAULT_ROUNDING);
     }
 
-    public Bill getBillForGuest(int guestId) {
-        String sql = "SELECT * FROM bills WHERE guest_id = ? AND status != 'PAID'";
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, guestId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    Bill b = mapResultSetToBill(rs);
-                    b.setServiceCharges(getServiceCharges(b.getBillId()));
-                    return b;
+    // Nights billed for a stay so far; at least one
+    private static long nightsBetween(LocalDate checkIn, LocalDate end) {
+        if (checkIn == null || end == null)
+            return 1;
+        long nights = ChronoUnit.DAYS.between(checkIn, end);
+        return nights <= 0 ? 1 : nights;
+    }
+
+    // Posts the room charge (nights so far x room type rate) to the open bill of every
+    // CHECKED_IN guest, creating bills where missing. One query reads guests, rooms and open
+    // bills; the writes are batched and commit together, so a failed run leaves nothing half
+    // posted. Room charges are set, not added, so running it twice for a date is harmless.
+    public NightAuditResult runNightAudit(LocalDate auditDate) {
+        String sql = "SELECT g.guest_id, g.full_name, g.check_in_date, r.type, b.bill_id, b.services_total, b.discount "
+                + "FROM guests g JOIN rooms r ON r.room_number = g.room_number "
+                + "LEFT JOIN bills b ON b.guest_id = g.guest_id AND b.status != 'PAID' "
+                + "WHERE g.status = 'CHECKED_IN' ORDER BY g.guest_id, b.bill_id";
+        String update = "UPDATE bills SET room_charges = ?, taxes = ?, total_amount = ?, updated_at = CURRENT_TIMESTAMP WHERE bill_id = ?";
+        String insert = "INSERT INTO bills (guest_id, guest_name, room_charges, services_total, taxes, discount, "
+                + "total_amount, status, method, bill_date, updated_at) "
+                + "VALUES (?, ?, ?, 0, ?, 0, ?, 'UNPAID', 'CASH', ?, CURRENT_TIMESTAMP)";
+        long started = System.nanoTime();
+        long[] queryNanos = new long[1];
+        int[] counts = new int[3]; // guests, updated, created
+        long taxRatePpm = getTaxRatePpm();
+        Map<String, Long> ratesByType = new HashMap<>();
+        try {
+            Tx.run(conn -> {
+                try (Statement stmt = conn.createStatement();
+                        ResultSet rs = stmt.executeQuery(sql);
+                        PreparedStatement upd = conn.prepareStatement(update);
+                        PreparedStatement ins = conn.prepareStatement(insert)) {
+                    queryNanos[0] = System.nanoTime() - started;
+                    int lastGuest = -1;
+                    int pendingUpdates = 0;
+                    int pendingInserts = 0;
+                    while (rs.next()) {
+                        int guestId = rs.getInt("guest_id");
+                        if (guestId == lastGuest)
+                            continue; // a second open bill; the lowest bill id is the folio
+                        lastGuest = guestId;
+                        counts[0]++;
+
+                        String type = rs.getString("type");
+                        long rate = ratesByType.computeIfAbsent(type == null ? "" : type,
+                                t -> Money.toMinor(settingsController != null
+                                        ? settingsController.getSettings().getRoomPrice(t)
+                                        : 100.0, DIGITS));
+                        Date checkIn = rs.getDate("check_in_date");
+                        long room = Math.multiplyExact(rate,
+                                nightsBetween(checkIn != null ? checkIn.toLocalDate() : null, auditDate));
+                        long services = minor(rs, "services_total");
+                        long discount = minor(rs, "discount");
+                        long subtotal = room + services;
+                        long taxes = Money.applyRate(subtotal, taxRatePpm, Money.DEFAULT_ROUNDING);
+                        long total = subtotal + taxes - discount;
+
+                        rs.getInt("bill_id");
+                        if (rs.wasNull()) {
+                            ins.setInt(1, guestId);
+                            ins.setString(2, rs.getString("full_name"));
+                            ins.setBigDecimal(3, decimal(room));
+                            ins.setBigDecimal(4, decimal(taxes));
+                            ins.setBigDecimal(5, decimal(total));
+                            ins.setDate(6, Date.valueOf(auditDate));
+                            ins.addBatch();
+                            if (++pendingInserts == FOLIO_BATCH) {
+                                counts[2] += updatedRows(ins.executeBatch());
+                                pendingInserts = 0;
+                            }
+                        } else {
+                            upd.setBigDecimal(1, decimal(room));
+                            upd.setBigDecimal(2, decimal(taxes));
+                            upd.setBigDecimal(3, decimal(total));
+                            upd.setInt(4, rs.getInt("bill_id"));
+                            upd.addBatch();
+                            if (++pendingUpdates == FOLIO_BATCH) {
+                                counts[1] += updatedRows(upd.executeBatch());
+                                pendingUpdates = 0;
+                            }
+                        }
+                    }
+                    if (pendingUpdates > 0)
+                        counts[1] += updatedRows(upd.executeBatch());
+                    if (pendingInserts > 0)
+                        counts[2] += updatedRows(ins.executeBatch());
                 }
-            }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            lastNightAudit = new NightAuditResult(auditDate, counts[0], 0, 0, queryNanos[0] / 1_000_000,
+                    (System.nanoTime() - started) / 1_000_000, e.getMessage());
+            return lastNightAudit;
+        }
+        lastNightAudit = new NightAuditResult(auditDate, counts[0], counts[1], counts[2], queryNanos[0] / 1_000_000,
+                (System.nanoTime() - started) / 1_000_000, null);
+        System.out.println("Night audit " + lastNightAudit);
+        return lastNightAudit;
+    }
+
+    public NightAuditResult getLastNightAudit() {
+        return lastNightAudit;
+    }
+
+    // Open bill of a guest with its service charges, in one query
+    public Bill getBillForGuest(int guestId) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return loadFolio(conn, guestId);
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return null;
     }
 
-    private List<Bill.ServiceCharge> getServiceCharges(int billId) {
-        List<Bill.ServiceCharge> list = new ArrayList<>();
-        String sql = "SELECT * FROM service_charges WHERE bill_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, billId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    list.add(new Bill.ServiceCharge(
-                            rs.getString("service_type"),
-                            rs.getDouble("amount"),
-                            rs.getDate("charge_date").toLocalDate()));
+    // Open bills of several guests (e.g. a checkout rush), keyed by guest id; guests
+    // without an open bill are left out. One query per FOLIO_BATCH guests.
+    public Map<Integer, Bill> getBillsForGuests(Collection<Integer> guestIds) {
+        Map<Integer, Bill> folios = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(guestIds));
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (int from = 0; from < ids.size(); from += FOLIO_BATCH) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + FOLIO_BATCH));
+                String sql = FOLIO_SELECT + "b.guest_id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?"))
+                        + ")" + FOLIO_ORDER;
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        readFolios(rs, folios);
+                    }
                 }
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return list;
+        return folios;
     }
 
-    public void addServiceCharge(int guestId, String serviceType, double amount) {
-        Bill bill = getBillForGuest(guestId);
-        if (bill != null) {
-            String sql = "INSERT INTO service_charges (bill_id, service_type, amount, charge_date) VALUES (?, ?, ?, ?)";
-            try (Connection conn = DatabaseConnection.getConnection();
-                    PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, bill.getBillId());
-                pstmt.setString(2, serviceType);
-                pstmt.setDouble(3, amount);
-                pstmt.setDate(4, Date.valueOf(LocalDate.now()));
-                pstmt.executeUpdate();
-
-                bill.addServiceCharge(new Bill.ServiceCharge(serviceType, amount, LocalDate.now()));
-                bill.recalculateTotal(getTaxRate());
-                saveBill(bill);
-            } catch (SQLException e) {
-                e.printStackTrace();
+    private Bill loadFolio(Connection conn, int guestId) throws SQLException {
+        Map<Integer, Bill> folios = new HashMap<>(2);
+        try (PreparedStatement pstmt = conn.prepareStatement(FOLIO_SELECT + "b.guest_id = ?" + FOLIO_ORDER)) {
+            pstmt.setInt(1, guestId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                readFolios(rs, folios);
             }
         }
+        return folios.get(guestId);
+    }
+
+    // One row per charge (or one row with null charge columns); the lowest open bill id of a
+    // guest wins, as the rows are ordered by it
+    private void readFolios(ResultSet rs, Map<Integer, Bill> folios) throws SQLException {
+        while (rs.next()) {
+            int guestId = rs.getInt("guest_id");
+            int billId = rs.getInt("bill_id");
+            Bill bill = folios.get(guestId);
+            if (bill == null) {
+                bill = mapResultSetToBill(rs);
+                folios.put(guestId, bill);
+            } else if (bill.getBillId() != billId) {
+                continue;
+            }
+            rs.getInt("charge_id");
+            if (!rs.wasNull()) {
+                Date chargeDate = rs.getDate("charge_date");
+                bill.addServiceCharge(new Bill.ServiceCharge(
+                        rs.getString("service_type"),
+                        minor(rs, "charge_amount"),
+                        chargeDate != null ? chargeDate.toLocalDate() : null));
+            }
+        }
+    }
+
+    // Charge insert and bill total update commit together. The bill row is locked and its
+    // running totals moved by the charge amount, so the cost doesn't grow with the folio.
+    public void addServiceCharge(int guestId, String serviceType, double amount) {
+        String sql = "INSERT INTO service_charges (bill_id, service_type, amount, charge_date) VALUES (?, ?, ?, ?)";
+        long amountMinor = Money.toMinor(amount, DIGITS);
+        try {
+            Tx.run(conn -> {
+                Bill bill = loadOpenBill(conn, guestId, true);
+                if (bill == null)
+                    return;
+
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, bill.getBillId());
+                    pstmt.setString(2, serviceType);
+                    pstmt.setBigDecimal(3, Money.toDecimal(amountMinor, DIGITS));
+                    pstmt.setDate(4, Date.valueOf(LocalDate.now()));
+                    pstmt.executeUpdate();
+                }
+
+                bill.postServiceCharge(new Bill.ServiceCharge(serviceType, amountMinor, LocalDate.now()));
+                bill.recalculateTotal(getTaxRatePpm(), Money.DEFAULT_ROUNDING);
+                saveTotals(conn, bill);
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
     }
 
     public void applyDiscount(int guestId, double discountAmount) {
-        Bill bill = getBillForGuest(guestId);
-        if (bill != null) {
-            bill.setDiscount(discountAmount);
-            bill.recalculateTotal(getTaxRate());
-            saveBill(bill);
+        try {
+            Tx.run(conn -> {
+                Bill bill = loadOpenBill(conn, guestId, true);
+                if (bill != null) {
+                    bill.setDiscountMinor(Money.toMinor(discountAmount, DIGITS));
+                    bill.recalculateTotal(getTaxRatePpm(), Money.DEFAULT_ROUNDING);
+                    saveTotals(conn, bill);
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
     }
 
+    // Only the bill header is needed to settle it, so the charges aren't loaded
     public boolean processPayment(int guestId, double amount, Bill.PaymentMethod method) {
-        Bill bill = getBillForGuest(guestId);
-        if (bill != null && amount > 0) {
-            if (amount >= bill.getTotalAmount()) {
-                bill.setPaymentStatus(Bill.PaymentStatus.PAID);
-                bill.setPaymentMethod(method);
-                saveBill(bill);
-                return true;
-            } else {
-                bill.setPaymentStatus(Bill.PaymentStatus.PARTIAL);
+        if (amount <= 0)
+            return false;
+        try {
+            return Tx.call(conn -> {
+                Bill bill = loadOpenBill(conn, guestId, true);
+                if (bill == null)
+                    return false;
+                boolean paidInFull = Money.toMinor(amount, DIGITS) >= bill.getTotalAmountMinor();
+                bill.setPaymentStatus(paidInFull ? Bill.PaymentStatus.PAID : Bill.PaymentStatus.PARTIAL);
                 bill.setPaymentMethod(method);
                 saveBill(bill);
+                if (paidInFull) {
+                    RevenueRollup.record(conn, bill.getBillDate(), method.name(), Bill.PaymentStatus.PAID.name(),
+                            decimal(bill.getTotalAmountMinor()));
+                }
                 return true;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Bill header only; forUpdate holds the row until the unit of work ends
+    private Bill loadOpenBill(Connection conn, int guestId, boolean forUpdate) throws SQLException {
+        String sql = "SELECT * FROM bills WHERE guest_id = ? AND status != 'PAID' ORDER BY bill_id"
+                + (forUpdate ? " FOR UPDATE" : "");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setMaxRows(1);
+            pstmt.setInt(1, guestId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapResultSetToBill(rs) : null;
             }
         }
-        return false;
+    }
+
+    private void saveTotals(Connection conn, Bill b) throws SQLException {
+        String sql = "UPDATE bills SET services_total = ?, taxes = ?, discount = ?, total_amount = ?, "
+                + "updated_at = CURRENT_TIMESTAMP WHERE bill_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setBigDecimal(1, decimal(b.getServicesTotalMinor()));
+            pstmt.setBigDecimal(2, decimal(b.getTaxesMinor()));
+            pstmt.setBigDecimal(3, decimal(b.getDiscountMinor()));
+            pstmt.setBigDecimal(4, decimal(b.getTotalAmountMinor()));
+            pstmt.setInt(5, b.getBillId());
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Recomputes services_total of every bill from service_charges in one query and checks
+    // total = room + services + taxes - discount. With repair, mismatched open bills get
+    // services_total, taxes and total recalculated in batches; a bill whose recalculated
+    // amounts equal the stored ones isn't written. Paid bills are what the guest was charged,
+    // so they are counted separately and left as they are. A bill changed by a desk while
+    // this runs is skipped, not overwritten.
+    public TotalsCheck verifyBillTotals(boolean repair) {
+        String sql = "SELECT b.bill_id, b.status, b.room_charges, b.services_total, b.taxes, b.discount, b.total_amount, "
+                + "COALESCE(s.charges_total, 0) AS charges_total FROM bills b LEFT JOIN "
+                + "(SELECT bill_id, SUM(amount) AS charges_total FROM service_charges GROUP BY bill_id) s "
+                + "ON s.bill_id = b.bill_id";
+        String update = "UPDATE bills SET services_total = ?, taxes = ?, total_amount = ?, updated_at = CURRENT_TIMESTAMP "
+                + "WHERE bill_id = ? "
+                + "AND (services_total = ? OR services_total IS NULL)";
+        int[] counts = new int[4]; // checked, mismatched, repaired, paid mismatched
+        long taxRatePpm = getTaxRatePpm();
+        try {
+            Tx.run(conn -> {
+                Bill scratch = new Bill(0, 0, null);
+                try (Statement stmt = conn.createStatement();
+                        ResultSet rs = stmt.executeQuery(sql);
+                        PreparedStatement upd = conn.prepareStatement(update)) {
+                    int pending = 0;
+                    while (rs.next()) {
+                        counts[0]++;
+                        long stored = minor(rs, "services_total");
+                        long actual = minor(rs, "charges_total");
+                        scratch.setRoomChargesMinor(minor(rs, "room_charges"));
+                        scratch.setServicesTotalMinor(stored);
+                        scratch.setTaxesMinor(minor(rs, "taxes"));
+                        scratch.setDiscountMinor(minor(rs, "discount"));
+                        long total = minor(rs, "total_amount");
+                        long expected = scratch.getRoomChargesMinor() + stored + scratch.getTaxesMinor()
+                                - scratch.getDiscountMinor();
+                        if (stored == actual && total == expected)
+                            continue;
+                        if ("PAID".equals(rs.getString("status"))) {
+                            counts[3]++;
+                            continue;
+                        }
+                        counts[1]++;
+                        if (!repair)
+                            continue;
+
+                        long taxes = scratch.getTaxesMinor();
+                        scratch.setServicesTotalMinor(actual);
+                        scratch.recalculateTotal(taxRatePpm, Money.DEFAULT_ROUNDING);
+                        if (actual == stored && scratch.getTaxesMinor() == taxes
+                                && scratch.getTotalAmountMinor() == total)
+                            continue;
+                        upd.setBigDecimal(1, decimal(actual));
+                        upd.setBigDecimal(2, decimal(scratch.getTaxesMinor()));
+                        upd.setBigDecimal(3, decimal(scratch.getTotalAmountMinor()));
+                        upd.setInt(4, rs.getInt("bill_id"));
+                        upd.setBigDecimal(5, decimal(stored));
+                        upd.addBatch();
+                        if (++pending == FOLIO_BATCH) {
+                            counts[2] += updatedRows(upd.executeBatch());
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0)
+                        counts[2] += updatedRows(upd.executeBatch());
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new TotalsCheck(counts[0], counts[1], counts[2], counts[3]);
+    }
+
+    private static int updatedRows(int[] results) {
+        int rows = 0;
+        for (int r : results) {
+            rows += r == Statement.SUCCESS_NO_INFO ? 1 : Math.max(r, 0);
+        }
+        return rows;
     }
 
     private double getTaxRate() {
         return (settingsController != null) ? settingsController.getSettings().getTaxRate() : 0.125;
     }
 
+    private long getTaxRatePpm() {
+        return Money.ratePpm(getTaxRate());
+    }
+
+    // bills/service_charges amounts are DECIMAL(12,2)
+    private static long minor(ResultSet rs, String column) throws SQLException {
+        return Money.toMinor(rs.getBigDecimal(column), DIGITS, Money.DEFAULT_ROUNDING);
+    }
+
+    private static long minor(ResultSet rs, int column) throws SQLException {
+        return Money.toMinor(rs.getBigDecimal(column), DIGITS, Money.DEFAULT_ROUNDING);
+    }
+
+    private static BigDecimal decimal(long minor) {
+        return Money.toDecimal(minor, DIGITS);
+    }
+
+    private static double revenue(ResultSet rs) throws SQLException {
+        BigDecimal sum = rs.getBigDecimal(1);
+        return sum == null ? 0 : sum.doubleValue();
+    }
+
     private void insertBill(Bill b) {
-        String sql = "INSERT INTO bills (guest_id, guest_name, room_charges, taxes, discount, total_amount, status, method, bill_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO bills (guest_id, guest_name, room_charges, services_total, taxes, discount, total_amount, status, method, bill_date, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setInt(1, b.getGuestId());
             pstmt.setString(2, b.getGuestName());
-            pstmt.setDouble(3, b.getRoomCharges());
-            pstmt.setDouble(4, b.getTaxes());
-            pstmt.setDouble(5, b.getDiscount());
-            pstmt.setDouble(6, b.getTotalAmount());
-            pstmt.setString(7, b.getPaymentStatus().name());
-            pstmt.setString(8, b.getPaymentMethod() != null ? b.getPaymentMethod().name() : "CASH");
-            pstmt.setDate(9, Date.valueOf(b.getBillDate()));
+            pstmt.setBigDecimal(3, decimal(b.getRoomChargesMinor()));
+            pstmt.setBigDecimal(4, decimal(b.getServicesTotalMinor()));
+            pstmt.setBigDecimal(5, decimal(b.getTaxesMinor()));
+            pstmt.setBigDecimal(6, decimal(b.getDiscountMinor()));
+            pstmt.setBigDecimal(7, decimal(b.getTotalAmountMinor()));
+            pstmt.setString(8, b.getPaymentStatus().name());
+            pstmt.setString(9, b.getPaymentMethod() != null ? b.getPaymentMethod().name() : "CASH");
+            pstmt.setDate(10, Date.valueOf(b.getBillDate()));
             pstmt.executeUpdate();
             try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                 if (generatedKeys.next())
@@ -179,13 +535,13 @@ public class BillingController {
     }
 
     private void saveBill(Bill b) {
-        String sql = "UPDATE bills SET room_charges = ?, taxes = ?, discount = ?, total_amount = ?, status = ?, method = ? WHERE bill_id = ?";
+        String sql = "UPDATE bills SET room_charges = ?, taxes = ?, discount = ?, total_amount = ?, status = ?, method = ?, updated_at = CURRENT_TIMESTAMP WHERE bill_id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setDouble(1, b.getRoomCharges());
-            pstmt.setDouble(2, b.getTaxes());
-            pstmt.setDouble(3, b.getDiscount());
-            pstmt.setDouble(4, b.getTotalAmount());
+            pstmt.setBigDecimal(1, decimal(b.getRoomChargesMinor()));
+            pstmt.setBigDecimal(2, decimal(b.getTaxesMinor()));
+            pstmt.setBigDecimal(3, decimal(b.getDiscountMinor()));
+            pstmt.setBigDecimal(4, decimal(b.getTotalAmountMinor()));
             pstmt.setString(5, b.getPaymentStatus().name());
             pstmt.setString(6, b.getPaymentMethod() != null ? b.getPaymentMethod().name() : "CASH");
             pstmt.setInt(7, b.getBillId());
@@ -209,35 +565,166 @@ public class BillingController {
         return list;
     }
 
+    // Bill headers in id order, a page at a time (service charges not loaded)
+    public Page<Bill> getBillsPage(Long afterId, int size) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return billPages.fetch(conn, null, null, afterId, size);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Page.empty();
+    }
+
+    // Bill headers dated in [from, to), in id order, read row by row; either bound may be
+    // null. Close the stream (try-with-resources).
+    public Stream<Bill> streamBills(LocalDate from, LocalDate to) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT * FROM bills" + QueryStream.range("bill_date", from, to, params) + " ORDER BY bill_id";
+        try {
+            return QueryStream.stream(sql, params, this::mapResultSetToBill);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Stream.empty();
+    }
+
+    // Revenue reports read the revenue_daily rollup, not bills
     public double getDailyRevenue(LocalDate date) {
-        String sql = "SELECT SUM(total_amount) FROM bills WHERE bill_date = ? AND status = 'PAID'";
+        return getRevenue(date, date.plusDays(1));
+    }
+
+    public double getMonthlyRevenue(int year, int month) {
+        LocalDate first = LocalDate.of(year, month, 1);
+        return getRevenue(first, first.plusMonths(1));
+    }
+
+    // Paid revenue for [from, to)
+    public double getRevenue(LocalDate from, LocalDate to) {
+        try {
+            return queryRevenue(from, to);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    // For reports that must tell a failed query from no revenue
+    double queryRevenue(LocalDate from, LocalDate to) throws SQLException {
+        String sql = "SELECT SUM(amount) FROM revenue_daily WHERE revenue_date >= ? AND revenue_date < ? AND status = 'PAID'";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setDate(1, Date.valueOf(date));
+            pstmt.setDate(1, Date.valueOf(from));
+            pstmt.setDate(2, Date.valueOf(to));
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next())
-                    return rs.getDouble(1);
+                return rs.next() ? revenue(rs) : 0;
             }
+        }
+    }
+
+    // Paid revenue per day for [from, to), zero-filled, in date order
+    public Map<LocalDate, Double> getDailyRevenueSeries(LocalDate from, LocalDate to) {
+        Map<LocalDate, Double> series = new LinkedHashMap<>();
+        for (LocalDate d = from; d.isBefore(to); d = d.plusDays(1)) {
+            series.put(d, 0.0);
+        }
+        String sql = "SELECT revenue_date, SUM(amount) FROM revenue_daily WHERE revenue_date >= ? AND revenue_date < ? "
+                + "AND status = 'PAID' GROUP BY revenue_date";
+        readSeries(sql, from, to, (date, minor) -> series.put(date, Money.toDouble(minor, DIGITS)));
+        return series;
+    }
+
+    // Paid revenue per month for the last `months` months including the current one, oldest first
+    public Map<YearMonth, Double> getTrailingMonthlyRevenue(int months) {
+        YearMonth current = YearMonth.now();
+        YearMonth first = current.minusMonths(months - 1L);
+        return getMonthlyRevenueSeries(first, current);
+    }
+
+    // As getTrailingMonthlyRevenue, but a failed query throws instead of reading as zero months
+    Map<YearMonth, Double> queryTrailingMonthlyRevenue(int months) throws SQLException {
+        YearMonth current = YearMonth.now();
+        return queryMonthlyRevenueSeries(current.minusMonths(months - 1L), current);
+    }
+
+    // Paid revenue per month from `first` to `last` inclusive, zero-filled; one query
+    public Map<YearMonth, Double> getMonthlyRevenueSeries(YearMonth first, YearMonth last) {
+        try {
+            return queryMonthlyRevenueSeries(first, last);
         } catch (SQLException e) {
             e.printStackTrace();
+            Map<YearMonth, Double> series = new LinkedHashMap<>();
+            for (YearMonth m = first; !m.isAfter(last); m = m.plusMonths(1)) {
+                series.put(m, 0.0);
+            }
+            return series;
         }
-        return 0;
     }
 
-    public double getMonthlyRevenue(int year, int month) {
-        String sql = "SELECT SUM(total_amount) FROM bills WHERE YEAR(bill_date) = ? AND MONTH(bill_date) = ? AND status = 'PAID'";
+    private Map<YearMonth, Double> queryMonthlyRevenueSeries(YearMonth first, YearMonth last) throws SQLException {
+        Map<YearMonth, Long> minorByMonth = new LinkedHashMap<>();
+        for (YearMonth m = first; !m.isAfter(last); m = m.plusMonths(1)) {
+            minorByMonth.put(m, 0L);
+        }
+        String sql = "SELECT revenue_date, SUM(amount) FROM revenue_daily WHERE revenue_date >= ? AND revenue_date < ? "
+                + "AND status = 'PAID' GROUP BY revenue_date";
+        querySeries(sql, first.atDay(1), last.plusMonths(1).atDay(1),
+                (date, minor) -> minorByMonth.merge(YearMonth.from(date), minor, Long::sum));
+        Map<YearMonth, Double> series = new LinkedHashMap<>();
+        for (Map.Entry<YearMonth, Long> month : minorByMonth.entrySet()) {
+            series.put(month.getKey(), Money.toDouble(month.getValue(), DIGITS));
+        }
+        return series;
+    }
+
+    // Paid revenue for [from, to) per payment method
+    public Map<String, Double> getRevenueByMethod(LocalDate from, LocalDate to) {
+        Map<String, Double> byMethod = new TreeMap<>();
+        String sql = "SELECT method, SUM(amount) FROM revenue_daily WHERE revenue_date >= ? AND revenue_date < ? "
+                + "AND status = 'PAID' GROUP BY method";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setDate(1, Date.valueOf(from));
+            pstmt.setDate(2, Date.valueOf(to));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next())
+                    byMethod.put(rs.getString(1), rs.getBigDecimal(2).doubleValue());
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return byMethod;
+    }
+
+    // Feeds (date, amount in minor units) rows to sink
+    private void readSeries(String sql, LocalDate from, LocalDate to, BiConsumer<LocalDate, Long> sink) {
+        try {
+            querySeries(sql, from, to, sink);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void querySeries(String sql, LocalDate from, LocalDate to, BiConsumer<LocalDate, Long> sink)
+            throws SQLException {
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, year);
-            pstmt.setInt(2, month);
+            pstmt.setDate(1, Date.valueOf(from));
+            pstmt.setDate(2, Date.valueOf(to));
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next())
-                    return rs.getDouble(1);
+                while (rs.next())
+                    sink.accept(rs.getDate(1).toLocalDate(), minor(rs, 2));
             }
+        }
+    }
+
+    // Regenerates revenue_daily from bills; returns the number of rollup rows, or -1 on error
+    public int rebuildRevenueRollup() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return RevenueRollup.rebuild(conn);
         } catch (SQLException e) {
             e.printStackTrace();
+            return -1;
         }
-        return 0;
     }
 
     public List<Bill> getOutstandingBalances() {
@@ -256,10 +743,11 @@ public class BillingController {
 
     private Bill mapResultSetToBill(ResultSet rs) throws SQLException {
         Bill b = new Bill(rs.getInt("bill_id"), rs.getInt("guest_id"), rs.getString("guest_name"));
-        b.setRoomCharges(rs.getDouble("room_charges"));
-        b.setTaxes(rs.getDouble("taxes"));
-        b.setDiscount(rs.getDouble("discount"));
-        b.setTotalAmount(rs.getDouble("total_amount"));
+        b.setRoomChargesMinor(minor(rs, "room_charges"));
+        b.setServicesTotalMinor(minor(rs, "services_total"));
+        b.setTaxesMinor(minor(rs, "taxes"));
+        b.setDiscountMinor(minor(rs, "discount"));
+        b.setTotalAmountMinor(minor(rs, "total_amount"));
         b.setPaymentStatus(Bill.PaymentStatus.valueOf(rs.getString("status")));
         b.setPaymentMethod(Bill.PaymentMethod.valueOf(rs.getString("method")));
         b.setBillDate(rs.getDate("bill_date").toLocalDate());
@@ -1,17 +1,33 @@
 package com.orionhotel.controller;
 
 import com.orionhotel.database.DatabaseConnection;
+import com.orionhotel.database.KeysetQuery;
+import com.orionhotel.database.QueryStream;
+import com.orionhotel.database.Tx;
+import com.orionhotel.model.AvailabilityMatrix;
+import com.orionhotel.model.Page;
 import com.orionhotel.model.Reservation;
 import com.orionhotel.model.Room;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 public class BookingController {
 
+    // One per BookingController, like the room cache; AppContext creates the one every screen shares
+    private final AvailabilityIndex index = new AvailabilityIndex();
+
     private RoomController roomController;
     private NotificationController notificationController;
+    private DashboardService dashboardService;
+    private final KeysetQuery<Reservation> reservationPages = new KeysetQuery<>("reservations", "reservation_id",
+            this::mapResultSetToReservation);
 
     public BookingController(RoomController roomController) {
         this.roomController = roomController;
@@ -21,12 +37,21 @@ public class BookingController {
         this.notificationController = nc;
     }
 
+    public void setDashboardService(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    private void dashboardChanged() {
+        if (dashboardService != null)
+            dashboardService.changed();
+    }
+
     public void addReservation(Reservation res) {
         String sql = "INSERT INTO reservations (guest_name, phone, email, room_type, room_number, check_in, check_out, num_guests, status) "
                 +
                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, res.getGuestName());
             pstmt.setString(2, res.getPhone());
@@ -42,6 +67,19 @@ public class BookingController {
             pstmt.setString(9, res.getStatus().name());
 
             pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next())
+                    res.setReservationId(keys.getInt(1));
+            }
+            if (isActive(res.getStatus())) {
+                int id = res.getReservationId();
+                Integer room = res.getRoomNumber();
+                String type = res.getRoomType();
+                LocalDate in = res.getCheckInDate();
+                LocalDate out = res.getCheckOutDate();
+                Tx.afterCommit(() -> index.add(id, room, type, in, out));
+                Tx.afterCommit(this::dashboardChanged);
+            }
 
             if (notificationController != null) {
                 notificationController.addNotification("New Reservation: " + res.getGuestName(),
@@ -67,21 +105,86 @@ public class BookingController {
         return list;
     }
 
+    // Reservations in id order, a page at a time; search (guest name) and status may be null
+    public Page<Reservation> getReservationsPage(String search, Reservation.Status status, Long afterId, int size) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        if (search != null && !search.isEmpty()) {
+            conditions.add("LOWER(guest_name) LIKE ?");
+            params.add("%" + search.toLowerCase() + "%");
+        }
+        if (status != null) {
+            conditions.add("status = ?");
+            params.add(status.name());
+        }
+        String filter = conditions.isEmpty() ? null : String.join(" AND ", conditions);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return reservationPages.fetch(conn, filter, params, afterId, size);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Page.empty();
+    }
+
+    // Reservations checking in within [from, to), in id order, read row by row; either bound
+    // may be null. Close the stream (try-with-resources).
+    public Stream<Reservation> streamReservations(LocalDate from, LocalDate to) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT * FROM reservations" + QueryStream.range("check_in", from, to, params)
+                + " ORDER BY reservation_id";
+        try {
+            return QueryStream.stream(sql, params, this::mapResultSetToReservation);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Stream.empty();
+    }
+
+    public int countReservations(Reservation.Status status) {
+        try {
+            return queryReservationCount(status);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    int queryReservationCount(Reservation.Status status) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM reservations WHERE status = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, status.name());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    // Any room of this type with no active reservation overlapping the stay; answered from memory,
+    // or from the table while the index can't be loaded
     public boolean isRoomAvailable(String roomType, LocalDate checkIn, LocalDate checkOut) {
-        // Find if there's any room of this type that isn't reserved during this period
-        List<Room> roomsOfType = roomController.getAllRooms().stream()
-                .filter(r -> r.getType().equalsIgnoreCase(roomType))
-                .toList();
-
-        for (Room room : roomsOfType) {
-            if (isSpecificRoomAvailable(room.getRoomNumber(), checkIn, checkOut)) {
-                return true;
+        List<Integer> roomNumbers = roomController.getRoomNumbers(roomType);
+        try {
+            return index.anyFree(roomNumbers, checkIn, checkOut);
+        } catch (IllegalStateException e) {
+            for (int roomNumber : roomNumbers) {
+                if (isFreeInDatabase(roomNumber, checkIn, checkOut))
+                    return true;
             }
+            return false;
         }
-        return false;
     }
 
     public boolean isSpecificRoomAvailable(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        try {
+            return index.isFree(roomNumber, checkIn, checkOut);
+        } catch (IllegalStateException e) {
+            return isFreeInDatabase(roomNumber, checkIn, checkOut);
+        }
+    }
+
+    // Reports "not free" when the query fails too
+    private boolean isFreeInDatabase(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
         String sql = "SELECT COUNT(*) FROM reservations WHERE room_number = ? " +
                 "AND status NOT IN ('CANCELLED', 'COMPLETED') " +
                 "AND NOT (check_out <= ? OR check_in >= ?)";
@@ -103,6 +206,58 @@ public class BookingController {
         return false;
     }
 
+    // Free rooms per room type for each night from 'from' up to (not including) 'to',
+    // computed in one pass over the cached rooms and active reservations. Throws
+    // IllegalStateException while the availability index can't be loaded.
+    public AvailabilityMatrix getAvailabilityMatrix(LocalDate from, LocalDate to) {
+        int nights = (int) Math.max(0, ChronoUnit.DAYS.between(from, to));
+        List<Room> rooms = roomController.getAllRooms();
+
+        Map<String, Integer> rowOfType = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Room r : rooms) {
+            if (r.getType() != null)
+                rowOfType.putIfAbsent(r.getType(), 0);
+        }
+        String[] types = rowOfType.keySet().toArray(new String[0]);
+        for (int i = 0; i < types.length; i++) {
+            rowOfType.put(types[i], i);
+        }
+
+        int[] total = new int[types.length];
+        Map<Integer, Integer> rowOfRoom = new HashMap<>();
+        for (Room r : rooms) {
+            if (r.getType() == null)
+                continue;
+            int row = rowOfType.get(r.getType());
+            total[row]++;
+            rowOfRoom.put(r.getRoomNumber(), row);
+        }
+
+        int width = nights + 1;
+        int[] diff = new int[types.length * width];
+        index.markBookedNights(rowOfRoom, rowOfType, from, nights, diff);
+
+        int[] free = new int[types.length * nights];
+        for (int row = 0; row < types.length; row++) {
+            int booked = 0;
+            for (int n = 0; n < nights; n++) {
+                booked += diff[row * width + n];
+                free[row * nights + n] = Math.max(0, total[row] - booked);
+            }
+        }
+        return new AvailabilityMatrix(types, total, from, nights, free);
+    }
+
+    // Builds the availability index in the background and keeps it refreshed; call once at startup
+    public void startAvailabilityIndex() {
+        index.start();
+    }
+
+    // For code that writes the reservations table directly (imports, other tools)
+    public void rebuildAvailabilityIndex() {
+        index.invalidate();
+    }
+
     public void confirmReservation(int reservationId) {
         updateStatus(reservationId, Reservation.Status.CONFIRMED);
     }
@@ -113,7 +268,8 @@ public class BookingController {
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, roomNumber);
             pstmt.setInt(2, reservationId);
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() > 0)
+                Tx.afterCommit(() -> index.assignRoom(reservationId, roomNumber));
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -127,7 +283,8 @@ public class BookingController {
             pstmt.setDate(2, Date.valueOf(newCheckOut));
             pstmt.setString(3, newRoomType);
             pstmt.setInt(4, reservationId);
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() > 0)
+                Tx.afterCommit(() -> index.reschedule(reservationId, newCheckIn, newCheckOut, newRoomType));
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -151,12 +308,20 @@ public class BookingController {
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, status.name());
             pstmt.setInt(2, id);
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() > 0) {
+                if (!isActive(status))
+                    Tx.afterCommit(() -> index.remove(id));
+                Tx.afterCommit(this::dashboardChanged);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    private static boolean isActive(Reservation.Status status) {
+        return status != Reservation.Status.CANCELLED && status != Reservation.Status.COMPLETED;
+    }
+
     public List<Reservation> getUpcomingReservations() {
         List<Reservation> list = new ArrayList<>();
         String sql = "SELECT * FROM reservations WHERE status != 'CANCELLED' AND check_in > ?";
@@ -0,0 +1,118 @@
+package com.orionhotel.controller;
+
+import com.orionhotel.database.DatabaseConnection;
+import com.orionhotel.model.Notification;
+import com.orionhotel.model.Role;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Figures for the home dashboard. The four counts and the latest notifications come back in
+// one round trip: a single row of scalar COUNT subqueries, left-joined to the top-N
+// notifications so the counts still arrive when there are none. Reservations by status and
+// the notifications are read through indexes; the room counts and pending tasks scan their
+// tables (rooms.status has no index, and status <> 'COMPLETED' can't use one), which stays
+// cheap at a hotel's row counts.
+//
+// Controllers that AppContext wires to this service call changed() after committing a
+// write that moves one of the figures; listeners hear about it once per burst of changes,
+// on a background thread.
+public class DashboardService {
+
+    private static final String SUMMARY_SQL = "SELECT s.total_rooms, s.available_rooms, s.pending_tasks, "
+            + "s.active_bookings, n.notif_id, n.message, n.target_role, n.is_read FROM ("
+            + "SELECT (SELECT COUNT(*) FROM rooms) AS total_rooms, "
+            + "(SELECT COUNT(*) FROM rooms WHERE status = 'AVAILABLE') AS available_rooms, "
+            + "(SELECT COUNT(*) FROM housekeeping_tasks WHERE status IS NULL OR status <> 'COMPLETED') AS pending_tasks, "
+            + "(SELECT COUNT(*) FROM reservations WHERE status = 'CONFIRMED') AS active_bookings) s "
+            + "LEFT JOIN (SELECT notif_id, message, target_role, is_read, created_at FROM notifications "
+            + "WHERE target_role = 'ALL' OR target_role = ? ORDER BY created_at DESC, notif_id DESC LIMIT ?) n "
+            + "ON 1 = 1 ORDER BY n.created_at DESC, n.notif_id DESC";
+
+    // Writes landing within this window are reported as one change
+    private static final long COALESCE_MS = 250;
+
+    private static final ScheduledExecutorService NOTIFIER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "orion-dashboard-events");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    public static class Summary {
+        public final int totalRooms;
+        public final int availableRooms;
+        public final int pendingTasks;
+        public final int activeBookings;
+        public final List<Notification> notifications;
+
+        public Summary(int totalRooms, int availableRooms, int pendingTasks, int activeBookings,
+                List<Notification> notifications) {
+            this.totalRooms = totalRooms;
+            this.availableRooms = availableRooms;
+            this.pendingTasks = pendingTasks;
+            this.activeBookings = activeBookings;
+            this.notifications = notifications;
+        }
+    }
+
+    // Newest notifications first, at most notificationLimit of them. Throws
+    // IllegalStateException when the query fails, so the screen can say so rather than show zeros.
+    public Summary getSummary(Role role, int notificationLimit) {
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(SUMMARY_SQL)) {
+            pstmt.setString(1, role.name());
+            pstmt.setInt(2, notificationLimit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int totalRooms = 0, availableRooms = 0, pendingTasks = 0, activeBookings = 0;
+                List<Notification> notifications = new ArrayList<>(notificationLimit);
+                while (rs.next()) {
+                    totalRooms = rs.getInt("total_rooms");
+                    availableRooms = rs.getInt("available_rooms");
+                    pendingTasks = rs.getInt("pending_tasks");
+                    activeBookings = rs.getInt("active_bookings");
+                    rs.getInt("notif_id");
+                    if (!rs.wasNull())
+                        notifications.add(NotificationController.mapResultSetToNotification(rs));
+                }
+                return new Summary(totalRooms, availableRooms, pendingTasks, activeBookings, notifications);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void addChangeListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    // Call through Tx.afterCommit so listeners never see a change that is rolled back
+    void changed() {
+        if (listeners.isEmpty() || !pending.compareAndSet(false, true))
+            return;
+        NOTIFIER.schedule(() -> {
+            pending.set(false);
+            for (Runnable listener : listeners) {
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }, COALESCE_MS, TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,7 +1,10 @@
 package com.orionhotel.controller;
 
 import com.orionhotel.database.DatabaseConnection;
+import com.orionhotel.database.KeysetQuery;
+import com.orionhotel.database.Tx;
 import com.orionhotel.model.Guest;
+import com.orionhotel.model.Page;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -15,6 +18,7 @@ import java.util.List;
 public class GuestController {
 
     private RoomController roomController;
+    private final KeysetQuery<Guest> guestPages = new KeysetQuery<>("guests", "guest_id", this::mapResultSetToGuest);
 
     public GuestController(RoomController roomController) {
         this.roomController = roomController;
@@ -56,6 +60,29 @@ public class GuestController {
         return list;
     }
 
+    // Guests in id order, a page at a time; search (name or phone) and status may be null
+    public Page<Guest> getGuestsPage(String search, Guest.GuestStatus status, Long afterId, int size) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        if (search != null && !search.isEmpty()) {
+            conditions.add("(LOWER(full_name) LIKE ? OR phone LIKE ?)");
+            String pattern = "%" + search.toLowerCase() + "%";
+            params.add(pattern);
+            params.add(pattern);
+        }
+        if (status != null) {
+            conditions.add("status = ?");
+            params.add(status.name());
+        }
+        String filter = conditions.isEmpty() ? null : String.join(" AND ", conditions);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return guestPages.fetch(conn, filter, params, afterId, size);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Page.empty();
+    }
+
     public List<Guest> searchGuests(String query) {
         List<Guest> list = new ArrayList<>();
         String sql = "SELECT * FROM guests WHERE LOWER(full_name) LIKE ? OR phone LIKE ?";
@@ -96,53 +123,55 @@ public class GuestController {
         return list;
     }
 
+    // Room booking and guest update commit together or not at all
     public boolean checkInGuest(int guestId, int roomNumber) {
-        // 1. Check if guest is valid and registered
-        // 2. Book room via RoomController (need to update RoomController to SQL first
-        // for transactional safety, but currently just calling method)
-        if (roomController.bookRoom(roomNumber)) {
-            String sql = "UPDATE guests SET status = 'CHECKED_IN', room_number = ?, check_in_date = ? WHERE guest_id = ?";
-            try (Connection conn = DatabaseConnection.getConnection();
-                    PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-                pstmt.setInt(1, roomNumber);
-                pstmt.setDate(2, java.sql.Date.valueOf(LocalDate.now())); // Current date
-                pstmt.setInt(3, guestId);
-
-                int rows = pstmt.executeUpdate();
-                return rows > 0;
-
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+        String sql = "UPDATE guests SET status = 'CHECKED_IN', room_number = ?, check_in_date = ? WHERE guest_id = ?";
+        try {
+            return Tx.call(conn -> {
+                if (!roomController.bookRoom(roomNumber))
+                    return false;
+
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, roomNumber);
+                    pstmt.setDate(2, java.sql.Date.valueOf(LocalDate.now())); // Current date
+                    pstmt.setInt(3, guestId);
+
+                    if (pstmt.executeUpdate() == 0) {
+                        Tx.setRollbackOnly(); // unknown guest: release the room again
+                        return false;
+                    }
+                    return true;
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
         return false;
     }
 
     public boolean checkOutGuest(int guestId) {
-        // Get guest to find room number
-        Guest guest = findGuestById(guestId);
-        if (guest != null && guest.getStatus() == Guest.GuestStatus.CHECKED_IN) {
-
-            // Checkout room
-            if (guest.getRoomNumber() != null) {
-                roomController.checkoutRoom(guest.getRoomNumber());
-            }
-
-            // Update guest status
-            String sql = "UPDATE guests SET status = 'CHECKED_OUT', check_out_date = ?, room_number = NULL WHERE guest_id = ?";
-            try (Connection conn = DatabaseConnection.getConnection();
-                    PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-                pstmt.setDate(1, java.sql.Date.valueOf(LocalDate.now()));
-                pstmt.setInt(2, guestId);
-
-                int rows = pstmt.executeUpdate();
-                return rows > 0;
+        String sql = "UPDATE guests SET status = 'CHECKED_OUT', check_out_date = ?, room_number = NULL WHERE guest_id = ?";
+        try {
+            return Tx.call(conn -> {
+                // Get guest to find room number
+                Guest guest = findGuestById(guestId);
+                if (guest == null || guest.getStatus() != Guest.GuestStatus.CHECKED_IN)
+                    return false;
+
+                // Checkout room
+                if (guest.getRoomNumber() != null) {
+                    roomController.checkoutRoom(guest.getRoomNumber());
+                }
 
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+                // Update guest status
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setDate(1, java.sql.Date.valueOf(LocalDate.now()));
+                    pstmt.setInt(2, guestId);
+                    return pstmt.executeUpdate() > 0;
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
         return false;
     }
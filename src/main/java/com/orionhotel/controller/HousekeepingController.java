@@ -1,9 +1,11 @@
 package com.orionhotel.controller;
 
 import com.orionhotel.database.DatabaseConnection;
+import com.orionhotel.database.KeysetQuery;
+import com.orionhotel.database.Tx;
 import com.orionhotel.model.HousekeepingTask;
 import com.orionhotel.model.MaintenanceRequest;
-import com.orionhotel.model.Staff;
+import com.orionhotel.model.Page;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -11,18 +13,29 @@ import java.util.List;
 public class HousekeepingController {
 
     private RoomController roomController;
-    private StaffController staffController;
     private NotificationController notificationController;
+    private DashboardService dashboardService;
+    private final KeysetQuery<HousekeepingTask> taskPages = new KeysetQuery<>("t.*, s.name AS staff_name",
+            "housekeeping_tasks t LEFT JOIN staff s ON s.staff_id = t.staff_id", "housekeeping_tasks", "t.task_id",
+            false, this::mapResultSetToTask);
 
-    public HousekeepingController(RoomController roomController, StaffController staffController) {
+    public HousekeepingController(RoomController roomController) {
         this.roomController = roomController;
-        this.staffController = staffController;
     }
 
     public void setNotificationController(NotificationController nc) {
         this.notificationController = nc;
     }
 
+    public void setDashboardService(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    private void dashboardChanged() {
+        if (dashboardService != null)
+            dashboardService.changed();
+    }
+
     // --- Housekeeping Tasks ---
     public void createCleaningTask(int roomNumber, HousekeepingTask.TaskType type, Integer staffId) {
         String sql = "INSERT INTO housekeeping_tasks (room_number, type, status, staff_id) VALUES (?, ?, 'PENDING', ?)";
@@ -35,6 +48,7 @@ public class HousekeepingController {
             else
                 pstmt.setNull(3, Types.INTEGER);
             pstmt.executeUpdate();
+            Tx.afterCommit(this::dashboardChanged);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -46,7 +60,8 @@ public class HousekeepingController {
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, newStatus.name());
             pstmt.setInt(2, taskId);
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() > 0)
+                Tx.afterCommit(this::dashboardChanged);
 
             if (newStatus == HousekeepingTask.Startus.COMPLETED) {
                 // Auto mark room clean
@@ -76,7 +91,9 @@ public class HousekeepingController {
 
     public List<HousekeepingTask> getAllTasks() {
         List<HousekeepingTask> list = new ArrayList<>();
-        String sql = "SELECT * FROM housekeeping_tasks";
+        // Staff names come from the join rather than a lookup per row
+        String sql = "SELECT t.*, s.name AS staff_name FROM housekeeping_tasks t "
+                + "LEFT JOIN staff s ON s.staff_id = t.staff_id";
         try (Connection conn = DatabaseConnection.getConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
@@ -89,6 +106,15 @@ public class HousekeepingController {
         return list;
     }
 
+    public Page<HousekeepingTask> getTasksPage(Long afterId, int size) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return taskPages.fetch(conn, null, null, afterId, size);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Page.empty();
+    }
+
     // --- Maintenance Requests ---
     public void createMaintenanceRequest(int roomNumber, MaintenanceRequest.IssueType type, String desc,
             MaintenanceRequest.Priority priority) {
@@ -124,24 +150,28 @@ public class HousekeepingController {
         }
     }
 
+    // Status change and follow-up cleaning task commit together
     public void completeMaintenance(int reqId) {
         String sql = "UPDATE maintenance_requests SET status = 'FIXED' WHERE request_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, reqId);
-            pstmt.executeUpdate();
-
-            // Mark room DIRTY (ready for cleaning)
-            int roomNum = getRoomNumForMaint(reqId);
-            if (roomNum != -1) {
-                // Technically Maintenance usually means it's dirty now
-                // My RoomController markCleaned marks it AVAILABLE.
-                // We need a 'markDirty' but I can just use a manual update or add it.
-                // For now, I'll just clear maintenance state via markCleaned then markDirty if
-                // possible
-                // Actually, I'll just create a cleaning task.
-                createCleaningTask(roomNum, HousekeepingTask.TaskType.CLEANING, null);
-            }
+        try {
+            Tx.run(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, reqId);
+                    pstmt.executeUpdate();
+                }
+
+                // Mark room DIRTY (ready for cleaning)
+                int roomNum = getRoomNumForMaint(reqId);
+                if (roomNum != -1) {
+                    // Technically Maintenance usually means it's dirty now
+                    // My RoomController markCleaned marks it AVAILABLE.
+                    // We need a 'markDirty' but I can just use a manual update or add it.
+                    // For now, I'll just clear maintenance state via markCleaned then markDirty if
+                    // possible
+                    // Actually, I'll just create a cleaning task.
+                    createCleaningTask(roomNum, HousekeepingTask.TaskType.CLEANING, null);
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -164,7 +194,8 @@ public class HousekeepingController {
 
     public List<MaintenanceRequest> getAllMaintenance() {
         List<MaintenanceRequest> list = new ArrayList<>();
-        String sql = "SELECT * FROM maintenance_requests";
+        String sql = "SELECT m.*, s.name AS staff_name FROM maintenance_requests m "
+                + "LEFT JOIN staff s ON s.staff_id = m.tech_id";
         try (Connection conn = DatabaseConnection.getConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
@@ -179,13 +210,14 @@ public class HousekeepingController {
 
     private HousekeepingTask mapResultSetToTask(ResultSet rs) throws SQLException {
         int staffId = rs.getInt("staff_id");
-        String staffName = rs.wasNull() ? "Unassigned" : getStaffName(staffId);
+        boolean unassigned = rs.wasNull();
+        String staffName = unassigned ? "Unassigned" : staffName(rs);
 
         HousekeepingTask t = new HousekeepingTask(
                 rs.getInt("task_id"),
                 rs.getInt("room_number"),
                 HousekeepingTask.TaskType.valueOf(rs.getString("type")),
-                rs.wasNull() ? null : staffId,
+                unassigned ? null : staffId,
                 staffName);
         t.setStatus(HousekeepingTask.Startus.valueOf(rs.getString("status")));
         return t;
@@ -193,7 +225,8 @@ public class HousekeepingController {
 
     private MaintenanceRequest mapResultSetToRequest(ResultSet rs) throws SQLException {
         int techId = rs.getInt("tech_id");
-        String techName = rs.wasNull() ? "Unassigned" : getStaffName(techId);
+        boolean unassigned = rs.wasNull();
+        String techName = unassigned ? "Unassigned" : staffName(rs);
 
         MaintenanceRequest r = new MaintenanceRequest(
                 rs.getInt("request_id"),
@@ -201,17 +234,17 @@ public class HousekeepingController {
                 MaintenanceRequest.IssueType.valueOf(rs.getString("issue_type")),
                 rs.getString("description"),
                 MaintenanceRequest.Priority.valueOf(rs.getString("priority")));
-        r.setStatus(MaintenanceRequest.Status.valueOf(rs.getString("status")));
-        r.setAssignedTechnician(rs.wasNull() ? null : techId, techName);
+        String status = rs.getString("status");
+        // New requests are stored as 'PENDING'
+        r.setStatus("PENDING".equals(status) ? MaintenanceRequest.Status.OPEN
+                : MaintenanceRequest.Status.valueOf(status));
+        r.setAssignedTechnician(unassigned ? null : techId, techName);
         return r;
     }
 
-    private String getStaffName(Integer id) {
-        if (id == null)
-            return "Unassigned";
-        return staffController.getAllStaff().stream()
-                .filter(s -> s.getStaffId() == id)
-                .map(Staff::getFullName)
-                .findFirst().orElse("Unknown");
+    // Joined staff name; the id points at a staff row that no longer exists when it's null
+    private String staffName(ResultSet rs) throws SQLException {
+        String name = rs.getString("staff_name");
+        return name != null ? name : "Unknown";
     }
 }
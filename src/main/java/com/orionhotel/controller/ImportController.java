@@ -0,0 +1,38 @@
+package com.orionhotel.controller;
+
+import com.orionhotel.database.DatabaseConnection;
+import com.orionhotel.utils.BulkImporter;
+
+import java.nio.file.Path;
+
+// Bulk CSV loads (new property onboarding, migration from another PMS). Once a file is in,
+// the caches over the imported table are dropped so every screen sees the new rows.
+public class ImportController {
+
+    private final RoomController roomController;
+    private final BookingController bookingController;
+    private final DashboardService dashboardService;
+
+    public ImportController(RoomController roomController, BookingController bookingController,
+            DashboardService dashboardService) {
+        this.roomController = roomController;
+        this.bookingController = bookingController;
+        this.dashboardService = dashboardService;
+    }
+
+    // Never null: a file that could not be read comes back with the error set
+    public BulkImporter.Result importFile(BulkImporter.Target target, String file,
+            BulkImporter.ProgressListener listener) {
+        BulkImporter importer = new BulkImporter(DatabaseConnection.getConfig().getImportChunkSize());
+        importer.setProgressListener(listener);
+        BulkImporter.Result result = importer.importFile(target, Path.of(file));
+        // Rows committed before a failure are in the database too
+        if (target == BulkImporter.Target.ROOMS)
+            roomController.invalidateCache();
+        if (target == BulkImporter.Target.RESERVATIONS)
+            bookingController.rebuildAvailabilityIndex();
+        dashboardService.changed();
+        System.out.println("Import " + result);
+        return result;
+    }
+}
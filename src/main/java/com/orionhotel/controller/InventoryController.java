@@ -1,15 +1,28 @@
 package com.orionhotel.controller;
 
 import com.orionhotel.database.DatabaseConnection;
+import com.orionhotel.database.QueryStream;
+import com.orionhotel.database.Tx;
 import com.orionhotel.model.InventoryItem;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 public class InventoryController {
 
+    private static final String CONSUME_SQL =
+            "UPDATE inventory SET quantity = quantity - ? WHERE item_id = ? AND quantity >= ?";
+    private static final String RESTOCK_SQL = "UPDATE inventory SET quantity = quantity + ? WHERE item_id = ?";
+    private static final String LOG_SQL =
+            "INSERT INTO inventory_logs (item_id, type, amount, timestamp) VALUES (?, ?, ?, ?)";
+
     private NotificationController notificationController;
 
     // Inner classes for Reports (mapped from DB now)
@@ -41,6 +54,25 @@ public class InventoryController {
         }
     }
 
+    // One inventory_logs row with its item name
+    public static class LogEntry {
+        public final int logId;
+        public final int itemId;
+        public final String itemName;
+        public final String type;
+        public final int amount;
+        public final LocalDateTime timestamp;
+
+        public LogEntry(int logId, int itemId, String itemName, String type, int amount, LocalDateTime timestamp) {
+            this.logId = logId;
+            this.itemId = itemId;
+            this.itemName = itemName;
+            this.type = type;
+            this.amount = amount;
+            this.timestamp = timestamp;
+        }
+    }
+
     // Simplified LowStock event derived from current state or logs
     public static class LowStockEvent {
         public final int itemId;
@@ -99,35 +131,76 @@ public class InventoryController {
         return list;
     }
 
+    // Take amount off one item; false when there isn't enough stock (nothing changes then)
     public boolean consumeItem(int itemId, int amount) {
-        InventoryItem item = getItem(itemId);
-        if (item != null && item.getQuantity() >= amount) {
-            int newQty = item.getQuantity() - amount;
-            updateItemQuantity(itemId, newQty);
-            logTransaction(itemId, "CONSUME", amount);
-
-            // Check low stock
-            if (newQty <= item.getMinimumThreshold()) {
-                if (notificationController != null) {
-                    notificationController.addNotification("Low Stock Alert: " + item.getItemName(),
-                            com.orionhotel.model.Notification.TargetRole.MANAGER);
+        return consumeItems(Map.of(itemId, amount));
+    }
+
+    // Take a whole cart (item id -> amount) in one transaction: one batch of conditional
+    // decrements, one batch of log rows. Every item is taken, or none is if any is short.
+    // The database checks the stock (quantity >= amount) as it decrements, so two stations
+    // can't both take the last units. Items are updated in id order so two carts sharing
+    // items lock their rows in the same order.
+    public boolean consumeItems(Map<Integer, Integer> amounts) {
+        Map<Integer, Integer> cart = new TreeMap<>(amounts);
+        if (cart.isEmpty() || cart.values().stream().anyMatch(amount -> amount == null || amount <= 0))
+            return false;
+        try {
+            return Tx.call(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(CONSUME_SQL)) {
+                    for (Map.Entry<Integer, Integer> line : cart.entrySet()) {
+                        pstmt.setInt(1, line.getValue());
+                        pstmt.setInt(2, line.getKey());
+                        pstmt.setInt(3, line.getValue());
+                        pstmt.addBatch();
+                    }
+                    for (int updated : pstmt.executeBatch()) {
+                        if (updated != 1) {
+                            Tx.setRollbackOnly(); // short of stock, or no such item
+                            return false;
+                        }
+                    }
                 }
-            }
-            return true;
+                logTransactions(conn, cart, "CONSUME");
+                alertLowStock(conn, cart.keySet());
+                return true;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
         return false;
     }
 
     public void restockItem(int itemId, int amount) {
-        InventoryItem item = getItem(itemId);
-        if (item != null) {
-            int newQty = item.getQuantity() + amount;
-            updateItemQuantity(itemId, newQty);
-            logTransaction(itemId, "RESTOCK", amount);
+        if (amount <= 0)
+            return;
+        try {
+            Tx.run(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(RESTOCK_SQL)) {
+                    pstmt.setInt(1, amount);
+                    pstmt.setInt(2, itemId);
+                    if (pstmt.executeUpdate() != 1) {
+                        Tx.setRollbackOnly();
+                        return;
+                    }
+                }
+                logTransactions(conn, Map.of(itemId, amount), "RESTOCK");
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
     }
 
     public List<InventoryItem> getLowStockItems() {
+        try {
+            return queryLowStockItems();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    List<InventoryItem> queryLowStockItems() throws SQLException {
         List<InventoryItem> list = new ArrayList<>();
         String sql = "SELECT * FROM inventory WHERE quantity <= min_level";
         try (Connection conn = DatabaseConnection.getConnection();
@@ -137,50 +210,45 @@ public class InventoryController {
             while (rs.next()) {
                 list.add(mapResultSetToItem(rs));
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         return list;
     }
 
-    private InventoryItem getItem(int itemId) {
-        String sql = "SELECT * FROM inventory WHERE item_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, itemId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next())
-                    return mapResultSetToItem(rs);
+    private void logTransactions(Connection conn, Map<Integer, Integer> amounts, String type) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement pstmt = conn.prepareStatement(LOG_SQL)) {
+            for (Map.Entry<Integer, Integer> line : amounts.entrySet()) {
+                pstmt.setInt(1, line.getKey());
+                pstmt.setString(2, type);
+                pstmt.setInt(3, line.getValue());
+                pstmt.setTimestamp(4, now);
+                pstmt.addBatch();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            pstmt.executeBatch();
         }
-        return null;
     }
 
-    private void updateItemQuantity(int itemId, int newQty) {
-        String sql = "UPDATE inventory SET quantity = ? WHERE item_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, newQty);
-            pstmt.setInt(2, itemId);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
+    // Low-stock alerts for the given items, read in the same transaction as the decrement
+    private void alertLowStock(Connection conn, Collection<Integer> itemIds) throws SQLException {
+        if (notificationController == null)
+            return;
+        String placeholders = String.join(", ", Collections.nCopies(itemIds.size(), "?"));
+        String sql = "SELECT name FROM inventory WHERE quantity <= min_level AND item_id IN (" + placeholders + ")";
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (int itemId : itemIds) {
+                pstmt.setInt(i++, itemId);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString("name"));
+                }
+            }
         }
-    }
-
-    private void logTransaction(int itemId, String type, int amount) {
-        String sql = "INSERT INTO inventory_logs (item_id, type, amount, timestamp) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, itemId);
-            pstmt.setString(2, type);
-            pstmt.setInt(3, amount);
-            pstmt.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
+        for (String name : names) {
+            notificationController.addNotification("Low Stock Alert: " + name,
+                    com.orionhotel.model.Notification.TargetRole.MANAGER);
         }
     }
 
@@ -247,6 +315,25 @@ public class InventoryController {
         return list;
     }
 
+    // Log entries timestamped in [from, to), in log order, read row by row; either bound may
+    // be null. Close the stream (try-with-resources).
+    public Stream<LogEntry> streamLogs(LocalDateTime from, LocalDateTime to) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT l.log_id, l.item_id, i.name, l.type, l.amount, l.timestamp FROM inventory_logs l "
+                + "LEFT JOIN inventory i ON l.item_id = i.item_id" + QueryStream.range("l.timestamp", from, to, params)
+                + " ORDER BY l.log_id";
+        try {
+            return QueryStream.stream(sql, params, rs -> {
+                Timestamp ts = rs.getTimestamp("timestamp");
+                return new LogEntry(rs.getInt("log_id"), rs.getInt("item_id"), rs.getString("name"),
+                        rs.getString("type"), rs.getInt("amount"), ts != null ? ts.toLocalDateTime() : null);
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Stream.empty();
+    }
+
     public List<LowStockEvent> getLowStockHistory() {
         // Placeholder: Since we just added logs, history is derived from logs or
         // current state.
@@ -274,6 +361,15 @@ public class InventoryController {
     }
 
     public List<ItemUsage> getMostUsedItems() {
+        try {
+            return queryMostUsedItems();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    List<ItemUsage> queryMostUsedItems() throws SQLException {
         List<ItemUsage> list = new ArrayList<>();
         String sql = "SELECT i.name, SUM(l.amount) as total FROM inventory_logs l JOIN inventory i ON l.item_id = i.item_id "
                 +
@@ -284,8 +380,6 @@ public class InventoryController {
             while (rs.next()) {
                 list.add(new ItemUsage(rs.getString("name"), rs.getInt("total")));
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         return list;
     }
@@ -1,7 +1,10 @@
 package com.orionhotel.controller;
 
 import com.orionhotel.database.DatabaseConnection;
+import com.orionhotel.database.KeysetQuery;
+import com.orionhotel.database.Tx;
 import com.orionhotel.model.Notification;
+import com.orionhotel.model.Page;
 import com.orionhotel.model.Role;
 import java.sql.*;
 import java.util.ArrayList;
@@ -9,16 +12,32 @@ import java.util.List;
 
 public class NotificationController {
 
+    // Newest first; ids grow with created_at
+    private static final KeysetQuery<Notification> PAGES = new KeysetQuery<>("*", "notifications", "notifications",
+            "notif_id", true, NotificationController::mapResultSetToNotification);
+
+    private DashboardService dashboardService;
+
     public NotificationController() {
     }
 
+    public void setDashboardService(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    private void dashboardChanged() {
+        if (dashboardService != null)
+            dashboardService.changed();
+    }
+
     public void addNotification(String message, Notification.TargetRole target) {
         String sql = "INSERT INTO notifications (message, target_role, is_read) VALUES (?, ?, FALSE)";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, message);
             pstmt.setString(2, target.name());
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() > 0)
+                Tx.afterCommit(this::dashboardChanged);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -53,12 +72,24 @@ public class NotificationController {
         return list;
     }
 
+    // A page of the role's notifications, newest first; beforeId is the previous page's next key
+    public Page<Notification> getNotificationsPage(Role userRole, Long beforeId, int size) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return PAGES.fetch(conn, "target_role = 'ALL' OR target_role = ?", List.of(userRole.name()), beforeId,
+                    size);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Page.empty();
+    }
+
     public void markAsRead(int notificationId) {
         String sql = "UPDATE notifications SET is_read = TRUE WHERE notif_id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, notificationId);
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() > 0)
+                Tx.afterCommit(this::dashboardChanged);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -69,7 +100,8 @@ public class NotificationController {
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, userRole.name());
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() > 0)
+                Tx.afterCommit(this::dashboardChanged);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -80,13 +112,14 @@ public class NotificationController {
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, userRole.name());
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() > 0)
+                Tx.afterCommit(this::dashboardChanged);
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
-    private Notification mapResultSetToNotification(ResultSet rs) throws SQLException {
+    static Notification mapResultSetToNotification(ResultSet rs) throws SQLException {
         Notification n = new Notification(
                 rs.getInt("notif_id"),
                 rs.getString("message"),
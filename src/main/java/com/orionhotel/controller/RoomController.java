@@ -1,6 +1,7 @@
 package com.orionhotel.controller;
 
 import com.orionhotel.database.DatabaseConnection;
+import com.orionhotel.database.Tx;
 import com.orionhotel.model.Room;
 import com.orionhotel.model.Room.RoomStatus;
 
@@ -10,14 +11,35 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 public class RoomController {
 
+    // One per RoomController; AppContext creates the one every screen shares
+    private final RoomCache cache = new RoomCache();
+    private DashboardService dashboardService;
+
     public RoomController() {
         // No sample data seeding
     }
 
+    public void setDashboardService(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    private void dashboardChanged() {
+        if (dashboardService != null)
+            dashboardService.changed();
+    }
+
     // Add a room to the system
     public void addRoom(Room room) {
         String sql = "INSERT INTO rooms (room_number, type, price, status) VALUES (?, ?, ?, ?)";
@@ -30,6 +52,9 @@ public class RoomController {
             pstmt.setString(4, room.getStatus().name());
 
             pstmt.executeUpdate();
+            Room added = copyOf(room);
+            Tx.afterCommit(() -> cache.put(added));
+            Tx.afterCommit(this::dashboardChanged);
             System.out.println("Room added to DB: " + room.getRoomNumber());
 
         } catch (SQLException e) {
@@ -39,38 +64,59 @@ public class RoomController {
 
     // Find available rooms
     public List<Room> getAvailableRooms() {
-        List<Room> list = new ArrayList<>();
-        String sql = "SELECT * FROM rooms WHERE status = 'AVAILABLE'";
+        return cache.withStatus(RoomStatus.AVAILABLE);
+    }
+
+    // Book a room: a single conditional update, so two desks can never both win
+    public boolean bookRoom(int roomNumber) {
+        String sql = "UPDATE rooms SET status = 'OCCUPIED' WHERE room_number = ? AND status = 'AVAILABLE'";
         try (Connection conn = DatabaseConnection.getConnection();
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            while (rs.next()) {
-                list.add(mapResultSetToRoom(rs));
+            pstmt.setInt(1, roomNumber);
+            if (pstmt.executeUpdate() == 1) {
+                Tx.afterCommit(() -> cache.setStatus(roomNumber, RoomStatus.OCCUPIED));
+                Tx.afterCommit(this::dashboardChanged);
+                return true;
             }
+            cache.invalidate(); // another desk got there first; our copy is stale
+
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return list;
+        return false;
     }
 
-    // Book a room
-    public boolean bookRoom(int roomNumber) {
-        // Check if available first
-        String query = "SELECT status FROM rooms WHERE room_number = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(query)) {
+    // Book a group block in one statement; all rooms are booked or none are
+    public boolean bookRoomBlock(Collection<Integer> roomNumbers) {
+        Set<Integer> distinct = new LinkedHashSet<>(roomNumbers);
+        if (distinct.isEmpty())
+            return false;
 
-            pstmt.setInt(1, roomNumber);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    String status = rs.getString("status");
-                    if ("AVAILABLE".equals(status)) {
-                        updateRoomStatus(roomNumber, RoomStatus.OCCUPIED);
-                        return true;
+        String placeholders = String.join(", ", Collections.nCopies(distinct.size(), "?"));
+        String sql = "UPDATE rooms SET status = 'OCCUPIED' WHERE status = 'AVAILABLE' AND room_number IN ("
+                + placeholders + ")";
+        try {
+            return Tx.call(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    int i = 1;
+                    for (int roomNumber : distinct) {
+                        pstmt.setInt(i++, roomNumber);
+                    }
+                    if (pstmt.executeUpdate() != distinct.size()) {
+                        Tx.setRollbackOnly(); // at least one room was taken or doesn't exist
+                        cache.invalidate();
+                        return false;
                     }
+                    Tx.afterCommit(() -> {
+                        for (int roomNumber : distinct) {
+                            cache.setStatus(roomNumber, RoomStatus.OCCUPIED);
+                        }
+                        dashboardChanged();
+                    });
+                    return true;
                 }
-            }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -94,61 +140,87 @@ public class RoomController {
         updateRoomStatus(roomNumber, RoomStatus.MAINTENANCE);
     }
 
-    // Get all rooms
+    // Get all rooms, ordered by room number
     public List<Room> getAllRooms() {
-        List<Room> list = new ArrayList<>();
-        String sql = "SELECT * FROM rooms";
-        try (Connection conn = DatabaseConnection.getConnection();
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                list.add(mapResultSetToRoom(rs));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return list;
+        return cache.all();
     }
 
     public Room getRoom(int roomNumber) {
-        String sql = "SELECT * FROM rooms WHERE room_number = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        return cache.get(roomNumber);
+    }
 
-            pstmt.setInt(1, roomNumber);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return mapResultSetToRoom(rs);
-                }
-            }
+    // Room numbers of the given type (case-insensitive), without copying Room objects
+    List<Integer> getRoomNumbers(String type) {
+        return cache.numbersOfType(type);
+    }
+
+    // For code that writes the rooms table directly (imports, other tools):
+    // drop the cached state so the next read reloads it
+    public void invalidateCache() {
+        cache.invalidate();
+    }
+
+    // Reload the cached room state from the database now
+    public void refreshCache() {
+        cache.invalidate();
+        cache.all();
+    }
+
+    private void updateRoomStatus(int roomNumber, RoomStatus status) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            updateRoomStatus(conn, roomNumber, status);
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return null;
     }
 
-    private void updateRoomStatus(int roomNumber, RoomStatus status) {
+    private int updateRoomStatus(Connection conn, int roomNumber, RoomStatus status) throws SQLException {
         String sql = "UPDATE rooms SET status = ? WHERE room_number = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, status.name());
             pstmt.setInt(2, roomNumber);
-            pstmt.executeUpdate();
+            int updated = pstmt.executeUpdate();
+            if (updated > 0) {
+                Tx.afterCommit(() -> cache.setStatus(roomNumber, status));
+                Tx.afterCommit(this::dashboardChanged);
+            }
+            return updated;
+        }
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+    // Only statuses with at least one room are present, as before
+    public Map<RoomStatus, Long> getRoomStatusCounts() {
+        return cache.statusCounts();
+    }
+
+    // As getRoomStatusCounts, but throws while the rooms have never loaded instead of
+    // answering with no rooms
+    Map<RoomStatus, Long> queryRoomStatusCounts() throws SQLException {
+        return cache.loadedStatusCounts();
+    }
+
+    // Always reads committed state on its own connection, even when called inside a Tx
+    private static List<Room> loadAllRooms() throws SQLException {
+        List<Room> list = new ArrayList<>();
+        String sql = "SELECT * FROM rooms";
+        try (Connection conn = DatabaseConnection.getPool().getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                list.add(mapResultSetToRoom(rs));
+            }
         }
+        return list;
     }
 
-    public java.util.Map<RoomStatus, Long> getRoomStatusCounts() {
-        return getAllRooms().stream()
-                .collect(java.util.stream.Collectors.groupingBy(Room::getStatus,
-                        java.util.stream.Collectors.counting()));
+    private static Room copyOf(Room room) {
+        Room r = new Room(room.getRoomNumber(), room.getType(), room.getPrice());
+        r.setStatus(room.getStatus());
+        return r;
     }
 
-    private Room mapResultSetToRoom(ResultSet rs) throws SQLException {
+    private static Room mapResultSetToRoom(ResultSet rs) throws SQLException {
         Room r = new Room();
         r.setRoomNumber(rs.getInt("room_number"));
         r.setType(rs.getString("type"));
@@ -162,4 +234,122 @@ public class RoomController {
         }
         return r;
     }
-}
\ No newline at end of file
+
+    // Room state keyed by room number, plus the room numbers in each status so counts
+    // and status lookups don't scan. Loaded on first use and reloaded after the configured
+    // TTL so changes made by other desks show up; our own writes are applied on commit.
+    // Callers always get copies.
+    private static final class RoomCache {
+        private final Map<Integer, Room> rooms = new TreeMap<>();
+        private final Map<RoomStatus, Set<Integer>> byStatus = new EnumMap<>(RoomStatus.class);
+        private boolean loaded;
+        private long expiresAt;
+
+        synchronized List<Room> all() {
+            ensureLoaded();
+            List<Room> list = new ArrayList<>(rooms.size());
+            for (Room r : rooms.values()) {
+                list.add(copyOf(r));
+            }
+            return list;
+        }
+
+        synchronized Room get(int roomNumber) {
+            ensureLoaded();
+            Room r = rooms.get(roomNumber);
+            return r != null ? copyOf(r) : null;
+        }
+
+        synchronized List<Room> withStatus(RoomStatus status) {
+            ensureLoaded();
+            Set<Integer> numbers = byStatus.get(status);
+            List<Room> list = new ArrayList<>(numbers.size());
+            for (int n : numbers) {
+                list.add(copyOf(rooms.get(n)));
+            }
+            return list;
+        }
+
+        synchronized List<Integer> numbersOfType(String type) {
+            ensureLoaded();
+            List<Integer> list = new ArrayList<>();
+            for (Room r : rooms.values()) {
+                if (r.getType().equalsIgnoreCase(type))
+                    list.add(r.getRoomNumber());
+            }
+            return list;
+        }
+
+        synchronized Map<RoomStatus, Long> statusCounts() {
+            ensureLoaded();
+            Map<RoomStatus, Long> counts = new EnumMap<>(RoomStatus.class);
+            for (Map.Entry<RoomStatus, Set<Integer>> e : byStatus.entrySet()) {
+                if (!e.getValue().isEmpty())
+                    counts.put(e.getKey(), (long) e.getValue().size());
+            }
+            return counts;
+        }
+
+        synchronized Map<RoomStatus, Long> loadedStatusCounts() throws SQLException {
+            Map<RoomStatus, Long> counts = statusCounts();
+            if (!loaded)
+                throw new SQLException("Rooms could not be loaded");
+            return counts;
+        }
+
+        synchronized void put(Room room) {
+            if (!loaded)
+                return; // picked up by the next load
+            Room old = rooms.put(room.getRoomNumber(), room);
+            if (old != null)
+                byStatus.get(old.getStatus()).remove(old.getRoomNumber());
+            byStatus.get(room.getStatus()).add(room.getRoomNumber());
+        }
+
+        synchronized void setStatus(int roomNumber, RoomStatus status) {
+            if (!loaded)
+                return;
+            Room r = rooms.get(roomNumber);
+            if (r == null) {
+                loaded = false; // added by someone else; reload on next read
+                return;
+            }
+            byStatus.get(r.getStatus()).remove(roomNumber);
+            r.setStatus(status);
+            byStatus.get(status).add(roomNumber);
+        }
+
+        synchronized void invalidate() {
+            loaded = false;
+        }
+
+        private void ensureLoaded() {
+            if (loaded && System.currentTimeMillis() < expiresAt)
+                return;
+            List<Room> fresh;
+            try {
+                fresh = loadAllRooms();
+            } catch (SQLException e) {
+                e.printStackTrace();
+                if (!loaded)
+                    reset(Collections.emptyList()); // serve nothing, retry on the next read
+                return; // otherwise keep serving the last known state
+            }
+            reset(fresh);
+            loaded = true;
+            long ttlSeconds = DatabaseConnection.getConfig().getRoomCacheTtlSeconds();
+            expiresAt = ttlSeconds > 0 ? System.currentTimeMillis() + ttlSeconds * 1000 : Long.MAX_VALUE;
+        }
+
+        private void reset(List<Room> fresh) {
+            rooms.clear();
+            for (RoomStatus status : RoomStatus.values()) {
+                byStatus.put(status, new TreeSet<>());
+            }
+            for (Room r : fresh) {
+                rooms.put(r.getRoomNumber(), r);
+                byStatus.get(r.getStatus()).add(r.getRoomNumber());
+            }
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.orionhotel.controller;
 
 import com.orionhotel.database.DatabaseConnection;
+import com.orionhotel.database.SchemaIndexes;
 import com.orionhotel.model.SystemSettings;
+import com.orionhotel.utils.DataExporter;
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.io.File;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 public class SettingsController {
@@ -35,6 +43,20 @@ public class SettingsController {
         return java.time.Duration.between(now, target).getSeconds();
     }
 
+    // Runs task every day at hour:minute on the settings scheduler. An exception is printed
+    // instead of propagating, which would cancel the following runs.
+    public ScheduledFuture<?> scheduleDaily(int hour, int minute, Runnable task) {
+        Runnable guarded = () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        };
+        return scheduler.scheduleAtFixedRate(guarded, calculateInitialDelay(hour, minute), 24 * 60 * 60,
+                TimeUnit.SECONDS);
+    }
+
     private void performDailyBackup() {
         createBackup("backups/daily");
     }
@@ -70,6 +92,65 @@ public class SettingsController {
         }
     }
 
+    // Exports every dataset into a new timestamped folder under targetDir; from/to may be null.
+    // Returns the per-file results, or null when the export failed (nothing half-written is left).
+    public List<DataExporter.Result> exportData(String targetDir, DataExporter.Format format, boolean gzip,
+            LocalDate from, LocalDate to, DataExporter.ProgressListener listener) {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        return exportData(Path.of(targetDir, "export_" + timestamp), format, gzip, from, to, listener);
+    }
+
+    // Previous day's extract for the accounting system, into orion.export.dir/yyyy-MM-dd
+    public void runNightlyExport(LocalDate day) {
+        var config = DatabaseConnection.getConfig();
+        DataExporter.Format format;
+        try {
+            format = DataExporter.Format.valueOf(config.getExportFormat().trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            System.err.println("Unknown export format '" + config.getExportFormat() + "', using CSV");
+            format = DataExporter.Format.CSV;
+        }
+        List<DataExporter.Result> results = exportData(Path.of(config.getExportDir(), day.toString()), format,
+                config.isExportGzip(), day, day.plusDays(1), null);
+        if (results != null) {
+            long rows = results.stream().mapToLong(r -> r.rows).sum();
+            System.out.println("Nightly export for " + day + ": " + rows + " rows in " + results.size() + " files");
+        }
+    }
+
+    private List<DataExporter.Result> exportData(Path dir, DataExporter.Format format, boolean gzip,
+            LocalDate from, LocalDate to, DataExporter.ProgressListener listener) {
+        DataExporter exporter = new DataExporter(format, gzip);
+        exporter.setDateRange(from, to);
+        exporter.setProgressListener(listener);
+        try {
+            return exporter.exportAll(EnumSet.allOf(DataExporter.Dataset.class), dir);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // Which secondary indexes exist and whether the hot queries use them
+    public java.util.List<String> getIndexUsageReport() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return SchemaIndexes.usageReport(conn);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return java.util.List.of("Unable to build index report: " + e.getMessage());
+        }
+    }
+
+    // Creates any missing secondary indexes; returns how many were created
+    public int rebuildMissingIndexes() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return SchemaIndexes.createAll(conn);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
     public boolean restoreBackup(String backupFilePath) {
         // H2 Restore is usually done by replacing the file while connection is closed.
         // For a live app, this is tricky. We'll provide instructions or use SCRIPT
@@ -57,7 +57,7 @@ public class StaffController {
     }
 
     public void addStaff(Staff staff) {
-        String sql = "INSERT INTO staff (name, role, username, password, status) VALUES (?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO staff (name, role, username, password, status, phone, email) VALUES (?, ?, ?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
@@ -66,6 +66,8 @@ public class StaffController {
             pstmt.setString(3, staff.getUsername());
             pstmt.setString(4, staff.getPasswordHash()); // Store the hash
             pstmt.setString(5, "ACTIVE");
+            pstmt.setString(6, staff.getPhoneNumber());
+            pstmt.setString(7, staff.getEmail());
 
             pstmt.executeUpdate();
             System.out.println("Staff added to DB: " + staff.getFullName());
@@ -76,14 +78,16 @@ public class StaffController {
     }
 
     public void updateStaff(Staff staff) {
-        String sql = "UPDATE staff SET name = ?, role = ?, username = ? WHERE staff_id = ?";
+        String sql = "UPDATE staff SET name = ?, role = ?, username = ?, phone = ?, email = ? WHERE staff_id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, staff.getFullName());
             pstmt.setString(2, staff.getRole().name());
             pstmt.setString(3, staff.getUsername());
-            pstmt.setInt(4, staff.getStaffId());
+            pstmt.setString(4, staff.getPhoneNumber());
+            pstmt.setString(5, staff.getEmail());
+            pstmt.setInt(6, staff.getStaffId());
 
             pstmt.executeUpdate();
 
@@ -188,15 +192,9 @@ public class StaffController {
             s.setStatus(Staff.Status.INACTIVE);
         }
 
-        // Note: Phone and Email are in the "Staff" model but my schema init didn't
-        // include them in the basic SQL query above?
-        // Let's check SchemaInit.java ...
-        // SchemaInit.java: "CREATE TABLE IF NOT EXISTS staff (staff_id INT..., name,
-        // role, username, password, status)"
-        // It seems I missed phone/email columns in the initial schema creation!
-        // I will stick to what is in the DB now to avoid errors, or update schema.
-        // For now, I'll leave phone/email null or implementation empty till schema
-        // update.
+        // Added by schema migration V3
+        s.setPhoneNumber(rs.getString("phone"));
+        s.setEmail(rs.getString("email"));
 
         return s;
     }
@@ -0,0 +1,436 @@
+package com.orionhotel.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded pool of physical JDBC connections.
+// Callers get a proxy whose close() hands the connection back to the pool, so the
+// controllers' try-with-resources blocks keep working unchanged.
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long borrowTimeoutMs;
+    private final long leakThresholdMs;
+    private final int validationTimeoutSec;
+    private final int statementCacheSize;
+
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Map<PooledConnection, Boolean> borrowed = new IdentityHashMap<>();
+    private final ScheduledExecutorService housekeeper;
+
+    private int totalCount;
+    private int waitingCount;
+    private boolean shutdown;
+
+    // Metrics
+    private long borrowCount;
+    private long createdCount;
+    private long destroyedCount;
+    private long validationFailures;
+    private long timeoutCount;
+    private long leakCount;
+    private long totalWaitNanos;
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementCacheEvictions = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+            long idleTimeoutMs, long borrowTimeoutMs, long leakThresholdMs, int validationTimeoutSec,
+            int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize)
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.leakThresholdMs = leakThresholdMs;
+        this.validationTimeoutSec = validationTimeoutSec;
+        this.statementCacheSize = statementCacheSize;
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "orion-db-pool");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::runHousekeeping, 30, 30, TimeUnit.SECONDS);
+    }
+
+    // Opens the minimum number of connections up front so the first screens don't pay for it
+    public void warmUp() throws SQLException {
+        int missing;
+        synchronized (this) {
+            if (shutdown)
+                return;
+            missing = Math.max(0, minSize - totalCount);
+            totalCount += missing;
+        }
+        for (int i = 0; i < missing; i++) {
+            PooledConnection pc;
+            try {
+                pc = openPhysical();
+            } catch (SQLException e) {
+                synchronized (this) {
+                    totalCount -= missing - i;
+                    notifyAll();
+                }
+                throw e;
+            }
+            synchronized (this) {
+                idle.push(pc);
+                notifyAll();
+            }
+        }
+    }
+
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs);
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean create = false;
+
+            synchronized (this) {
+                if (shutdown)
+                    throw new SQLException("Connection pool has been shut down");
+
+                while (idle.isEmpty() && totalCount >= maxSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount++;
+                        throw new SQLException("Timed out after " + borrowTimeoutMs
+                                + " ms waiting for a database connection (" + totalCount + " in use)");
+                    }
+                    waitingCount++;
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    } finally {
+                        waitingCount--;
+                    }
+                    if (shutdown)
+                        throw new SQLException("Connection pool has been shut down");
+                }
+
+                if (!idle.isEmpty()) {
+                    candidate = idle.pop();
+                } else {
+                    totalCount++;
+                    create = true;
+                }
+            }
+
+            if (create) {
+                try {
+                    candidate = openPhysical();
+                } catch (SQLException e) {
+                    synchronized (this) {
+                        totalCount--;
+                        notifyAll();
+                    }
+                    throw e;
+                }
+            } else if (!isUsable(candidate)) {
+                discard(candidate);
+                continue;
+            }
+
+            return checkOut(candidate, start);
+        }
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        try {
+            if (pc.physical.isClosed() || !pc.physical.isValid(validationTimeoutSec)) {
+                synchronized (this) {
+                    validationFailures++;
+                }
+                return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            synchronized (this) {
+                validationFailures++;
+            }
+            return false;
+        }
+    }
+
+    private Connection checkOut(PooledConnection pc, long waitStart) {
+        pc.borrowedAt = System.currentTimeMillis();
+        pc.borrowSite = leakThresholdMs > 0 ? new Throwable("Connection borrowed here") : null;
+        pc.leakReported = false;
+        synchronized (this) {
+            borrowed.put(pc, Boolean.TRUE);
+            borrowCount++;
+            totalWaitNanos += System.nanoTime() - waitStart;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new Handle(pc));
+    }
+
+    private void release(PooledConnection pc) {
+        boolean reusable;
+        try {
+            reusable = !pc.physical.isClosed();
+            if (reusable && pc.statements != null)
+                pc.statements.releaseAll();
+            if (reusable && !pc.physical.getAutoCommit()) {
+                // Never hand uncommitted work to the next borrower
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            reusable = false;
+        }
+
+        synchronized (this) {
+            borrowed.remove(pc);
+            if (reusable && !shutdown) {
+                pc.lastReturnedAt = System.currentTimeMillis();
+                idle.push(pc);
+                notifyAll();
+                return;
+            }
+        }
+        discard(pc);
+    }
+
+    private PooledConnection openPhysical() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        synchronized (this) {
+            createdCount++;
+        }
+        StatementCache cache = statementCacheSize > 0
+                ? new StatementCache(physical, statementCacheSize, statementCacheHits, statementCacheMisses,
+                        statementCacheEvictions)
+                : null;
+        return new PooledConnection(physical, cache);
+    }
+
+    private void discard(PooledConnection pc) {
+        closeQuietly(pc);
+        synchronized (this) {
+            totalCount--;
+            destroyedCount++;
+            notifyAll();
+        }
+    }
+
+    private void closeQuietly(PooledConnection pc) {
+        if (pc.statements != null)
+            pc.statements.clear();
+        try {
+            pc.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Failed to close pooled connection: " + e.getMessage());
+        }
+    }
+
+    // Evicts idle connections above the minimum and reports connections held for too long
+    private void runHousekeeping() {
+        long now = System.currentTimeMillis();
+        List<PooledConnection> evicted = new ArrayList<>();
+        List<PooledConnection> leaked = new ArrayList<>();
+
+        synchronized (this) {
+            if (shutdown)
+                return;
+            var it = idle.descendingIterator(); // oldest returned first
+            while (it.hasNext() && totalCount - evicted.size() > minSize) {
+                PooledConnection pc = it.next();
+                if (idleTimeoutMs > 0 && now - pc.lastReturnedAt > idleTimeoutMs) {
+                    it.remove();
+                    evicted.add(pc);
+                }
+            }
+            if (leakThresholdMs > 0) {
+                for (PooledConnection pc : borrowed.keySet()) {
+                    if (!pc.leakReported && now - pc.borrowedAt > leakThresholdMs) {
+                        pc.leakReported = true;
+                        leakCount++;
+                        leaked.add(pc);
+                    }
+                }
+            }
+        }
+
+        for (PooledConnection pc : evicted) {
+            discard(pc);
+        }
+        for (PooledConnection pc : leaked) {
+            System.err.println("Possible connection leak: connection held for "
+                    + (now - pc.borrowedAt) + " ms");
+            if (pc.borrowSite != null)
+                pc.borrowSite.printStackTrace();
+        }
+
+        try {
+            warmUp();
+        } catch (SQLException e) {
+            System.err.println("Failed to replenish connection pool: " + e.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        List<PooledConnection> toClose;
+        synchronized (this) {
+            if (shutdown)
+                return;
+            shutdown = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            notifyAll();
+        }
+        housekeeper.shutdownNow();
+        for (PooledConnection pc : toClose) {
+            closeQuietly(pc);
+        }
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(totalCount, idle.size(), borrowed.size(), waitingCount, maxSize, borrowCount,
+                createdCount, destroyedCount, validationFailures, timeoutCount, leakCount,
+                borrowCount == 0 ? 0 : totalWaitNanos / borrowCount / 1000, statementCacheHits.get(),
+                statementCacheMisses.get(), statementCacheEvictions.get());
+    }
+
+    public static class Stats {
+        public final int total;
+        public final int idle;
+        public final int active;
+        public final int waiting;
+        public final int maxSize;
+        public final long borrowCount;
+        public final long createdCount;
+        public final long destroyedCount;
+        public final long validationFailures;
+        public final long timeoutCount;
+        public final long leakCount;
+        public final long avgWaitMicros;
+        public final long statementCacheHits;
+        public final long statementCacheMisses;
+        public final long statementCacheEvictions;
+
+        public Stats(int total, int idle, int active, int waiting, int maxSize, long borrowCount,
+                long createdCount, long destroyedCount, long validationFailures, long timeoutCount,
+                long leakCount, long avgWaitMicros, long statementCacheHits, long statementCacheMisses,
+                long statementCacheEvictions) {
+            this.total = total;
+            this.idle = idle;
+            this.active = active;
+            this.waiting = waiting;
+            this.maxSize = maxSize;
+            this.borrowCount = borrowCount;
+            this.createdCount = createdCount;
+            this.destroyedCount = destroyedCount;
+            this.validationFailures = validationFailures;
+            this.timeoutCount = timeoutCount;
+            this.leakCount = leakCount;
+            this.avgWaitMicros = avgWaitMicros;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+            this.statementCacheEvictions = statementCacheEvictions;
+        }
+
+        public double getStatementCacheHitRatio() {
+            long lookups = statementCacheHits + statementCacheMisses;
+            return lookups == 0 ? 0 : (double) statementCacheHits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "Pool[total=%d/%d, idle=%d, active=%d, waiting=%d, borrows=%d, created=%d, destroyed=%d, "
+                            + "invalid=%d, timeouts=%d, leaks=%d, avgWait=%dus, stmtCache=%d hits/%d misses/"
+                            + "%d evictions (%.1f%%)]",
+                    total, maxSize, idle, active, waiting, borrowCount, createdCount, destroyedCount,
+                    validationFailures, timeoutCount, leakCount, avgWaitMicros, statementCacheHits,
+                    statementCacheMisses, statementCacheEvictions, getStatementCacheHitRatio() * 100);
+        }
+    }
+
+    private static class PooledConnection {
+        final Connection physical;
+        final StatementCache statements; // null when caching is disabled
+        long lastReturnedAt = System.currentTimeMillis();
+        long borrowedAt;
+        Throwable borrowSite;
+        boolean leakReported;
+
+        PooledConnection(Connection physical, StatementCache statements) {
+            this.physical = physical;
+            this.statements = statements;
+        }
+    }
+
+    // One handle per borrow; once closed it can no longer reach the physical connection
+    private class Handle implements InvocationHandler {
+        private PooledConnection pc;
+
+        Handle(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (pc != null) {
+                        PooledConnection returned = pc;
+                        pc = null;
+                        release(returned);
+                    }
+                    return null;
+                case "isClosed":
+                    return pc == null || pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + (pc == null ? "closed" : pc.physical.toString()) + "]";
+                default:
+                    break;
+            }
+            if (pc == null)
+                throw new SQLException("Connection has already been returned to the pool");
+            if (pc.statements != null && "prepareStatement".equals(method.getName())) {
+                if (args.length == 1)
+                    return pc.statements.prepare((Connection) proxy, (String) args[0], -1);
+                if (args.length == 2 && method.getParameterTypes()[1] == int.class)
+                    return pc.statements.prepare((Connection) proxy, (String) args[0], (Integer) args[1]);
+            }
+            try {
+                return method.invoke(pc.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.orionhotel.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+// Database settings resolved at startup instead of compile-time constants.
+// Lookup order for every key (first hit wins):
+// 1. JVM system property, e.g. -Dorion.db.pool.maxSize=20
+// 2. Environment variable, e.g. ORION_DB_POOL_MAXSIZE=20
+// 3. orion-db.properties in the working directory (or the file named by orion.db.config)
+// 4. orion-db.properties on the classpath
+// 5. The selected profile (orion.db.profile)
+// 6. Built-in defaults
+public class DatabaseConfig {
+
+    public static final String CONFIG_FILE = "orion-db.properties";
+
+    public static final String PROFILE_SINGLE_DESK = "single-desk";
+    public static final String PROFILE_MULTI_DESK = "multi-desk";
+    public static final String PROFILE_BULK_IMPORT = "bulk-import";
+    public static final String DEFAULT_PROFILE = PROFILE_MULTI_DESK;
+
+    private static final Map<String, Properties> PROFILES = new HashMap<>();
+    private static final Properties DEFAULTS = new Properties();
+
+    static {
+        DEFAULTS.setProperty("orion.db.type", "H2");
+        DEFAULTS.setProperty("orion.db.h2.path", "./orion_hotel_db");
+        DEFAULTS.setProperty("orion.db.h2.user", "sa");
+        DEFAULTS.setProperty("orion.db.h2.password", "");
+        DEFAULTS.setProperty("orion.db.mysql.url", "jdbc:mysql://localhost:3306/orion_hotel_db");
+        DEFAULTS.setProperty("orion.db.mysql.user", "root");
+        DEFAULTS.setProperty("orion.db.mysql.password", "password");
+
+        DEFAULTS.setProperty("orion.db.pool.minSize", "2");
+        DEFAULTS.setProperty("orion.db.pool.maxSize", "10");
+        DEFAULTS.setProperty("orion.db.pool.idleTimeoutMs", "300000");
+        DEFAULTS.setProperty("orion.db.pool.borrowTimeoutMs", "10000");
+        DEFAULTS.setProperty("orion.db.pool.leakThresholdMs", "60000");
+        DEFAULTS.setProperty("orion.db.pool.validationTimeoutSec", "2");
+        DEFAULTS.setProperty("orion.db.pool.statementCacheSize", "64");
+
+        // H2 engine tuning (see http://www.h2database.com/html/features.html#database_url)
+        DEFAULTS.setProperty("orion.db.h2.autoServer", "true");
+        DEFAULTS.setProperty("orion.db.h2.cacheSizeKb", "65536");
+        DEFAULTS.setProperty("orion.db.h2.writeDelayMs", "500");
+        DEFAULTS.setProperty("orion.db.h2.lockTimeoutMs", "10000");
+        DEFAULTS.setProperty("orion.db.h2.mvstore.retentionTimeMs", "45000");
+        DEFAULTS.setProperty("orion.db.h2.mvstore.maxCompactTimeMs", "200");
+        DEFAULTS.setProperty("orion.db.h2.mvstore.compress", "false");
+        DEFAULTS.setProperty("orion.db.h2.extra", "");
+
+        // In-memory caches; other desks' writes become visible after the TTL (0 = never expire)
+        DEFAULTS.setProperty("orion.cache.roomTtlSeconds", "30");
+        DEFAULTS.setProperty("orion.cache.availabilityTtlSeconds", "30");
+        DEFAULTS.setProperty("orion.cache.analyticsTtlSeconds", "300");
+        DEFAULTS.setProperty("orion.import.chunkSize", "500");
+        DEFAULTS.setProperty("orion.export.dir", "");
+        DEFAULTS.setProperty("orion.export.format", "CSV");
+        DEFAULTS.setProperty("orion.export.gzip", "true");
+
+        // Front desk PC that owns the database file; no other process connects
+        Properties single = new Properties();
+        single.setProperty("orion.db.h2.autoServer", "false");
+        single.setProperty("orion.db.h2.cacheSizeKb", "32768");
+        single.setProperty("orion.db.h2.lockTimeoutMs", "2000");
+        single.setProperty("orion.db.pool.minSize", "1");
+        single.setProperty("orion.db.pool.maxSize", "4");
+        single.setProperty("orion.cache.roomTtlSeconds", "0");
+        single.setProperty("orion.cache.availabilityTtlSeconds", "0");
+        PROFILES.put(PROFILE_SINGLE_DESK, single);
+
+        // Several desks share one database file through H2's automatic mixed mode
+        Properties multi = new Properties();
+        multi.setProperty("orion.db.h2.autoServer", "true");
+        multi.setProperty("orion.db.h2.cacheSizeKb", "65536");
+        multi.setProperty("orion.db.h2.lockTimeoutMs", "10000");
+        multi.setProperty("orion.db.pool.minSize", "2");
+        multi.setProperty("orion.db.pool.maxSize", "10");
+        PROFILES.put(PROFILE_MULTI_DESK, multi);
+
+        // Night-audit and migration imports: large cache, lazy flushing, patient locks
+        Properties bulk = new Properties();
+        bulk.setProperty("orion.db.h2.autoServer", "true");
+        bulk.setProperty("orion.db.h2.cacheSizeKb", "262144");
+        bulk.setProperty("orion.db.h2.writeDelayMs", "2000");
+        bulk.setProperty("orion.db.h2.lockTimeoutMs", "60000");
+        bulk.setProperty("orion.db.h2.mvstore.maxCompactTimeMs", "0");
+        bulk.setProperty("orion.db.pool.minSize", "1");
+        bulk.setProperty("orion.db.pool.maxSize", "6");
+        bulk.setProperty("orion.db.pool.leakThresholdMs", "0");
+        PROFILES.put(PROFILE_BULK_IMPORT, bulk);
+    }
+
+    private final Properties fileProperties;
+    private final Map<String, String> overrides;
+    private final String profileName;
+    private final Properties profile;
+
+    private DatabaseConfig(Properties fileProperties, Map<String, String> overrides) {
+        this.fileProperties = fileProperties;
+        this.overrides = overrides;
+        String requested = lookup("orion.db.profile", null);
+        String name = requested != null ? requested.trim().toLowerCase(Locale.ROOT) : DEFAULT_PROFILE;
+        if (!PROFILES.containsKey(name)) {
+            System.err.println("Unknown database profile '" + requested + "', using " + DEFAULT_PROFILE);
+            name = DEFAULT_PROFILE;
+        }
+        this.profileName = name;
+        this.profile = PROFILES.get(name);
+    }
+
+    public static DatabaseConfig load() {
+        return new DatabaseConfig(loadFileProperties(), new HashMap<>());
+    }
+
+    // Same sources as load(), but forces the given profile (e.g. for a night-audit import run)
+    public static DatabaseConfig forProfile(String profileName) {
+        Map<String, String> overrides = new HashMap<>();
+        overrides.put("orion.db.profile", profileName);
+        return new DatabaseConfig(loadFileProperties(), overrides);
+    }
+
+    public static java.util.Set<String> getProfileNames() {
+        return java.util.Collections.unmodifiableSet(PROFILES.keySet());
+    }
+
+    private static Properties loadFileProperties() {
+        Properties props = new Properties();
+        try (InputStream in = DatabaseConfig.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
+            if (in != null)
+                props.load(in);
+        } catch (IOException e) {
+            System.err.println("Could not read classpath " + CONFIG_FILE + ": " + e.getMessage());
+        }
+
+        String explicitPath = System.getProperty("orion.db.config", System.getenv("ORION_DB_CONFIG"));
+        Path path = explicitPath != null ? Paths.get(explicitPath) : Paths.get(CONFIG_FILE);
+        if (Files.isRegularFile(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                props.load(in);
+                System.out.println("Loaded database configuration from " + path.toAbsolutePath());
+            } catch (IOException e) {
+                System.err.println("Could not read " + path + ": " + e.getMessage());
+            }
+        }
+        return props;
+    }
+
+    private String lookup(String key, String fallback) {
+        String value = overrides.get(key);
+        if (value == null)
+            value = System.getProperty(key);
+        if (value == null)
+            value = System.getenv(toEnvName(key));
+        if (value == null)
+            value = fileProperties.getProperty(key);
+        return value != null ? value.trim() : fallback;
+    }
+
+    static String toEnvName(String key) {
+        return key.replace('.', '_').toUpperCase(Locale.ROOT);
+    }
+
+    public String get(String key) {
+        String value = lookup(key, null);
+        if (value == null && profile != null)
+            value = profile.getProperty(key);
+        if (value == null)
+            value = DEFAULTS.getProperty(key);
+        return value;
+    }
+
+    public int getInt(String key) {
+        return (int) getLong(key);
+    }
+
+    public long getLong(String key) {
+        String value = get(key);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException | NullPointerException e) {
+            long fallback = Long.parseLong(DEFAULTS.getProperty(key, "0"));
+            System.err.println("Invalid value '" + value + "' for " + key + ", using " + fallback);
+            return fallback;
+        }
+    }
+
+    public boolean getBoolean(String key) {
+        return Boolean.parseBoolean(get(key));
+    }
+
+    public String getProfileName() {
+        return profileName;
+    }
+
+    public DatabaseConnection.DB_TYPE getDbType() {
+        String type = get("orion.db.type");
+        try {
+            return DatabaseConnection.DB_TYPE.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown database type '" + type + "', using H2");
+            return DatabaseConnection.DB_TYPE.H2;
+        }
+    }
+
+    public String getJdbcUrl() {
+        String explicit = get("orion.db.url");
+        if (explicit != null && !explicit.isEmpty())
+            return explicit;
+        if (getDbType() == DatabaseConnection.DB_TYPE.MYSQL)
+            return get("orion.db.mysql.url");
+        return buildH2Url();
+    }
+
+    private String buildH2Url() {
+        StringBuilder url = new StringBuilder("jdbc:h2:").append(get("orion.db.h2.path"));
+        url.append(";AUTO_SERVER=").append(getBoolean("orion.db.h2.autoServer") ? "TRUE" : "FALSE");
+        url.append(";CACHE_SIZE=").append(getLong("orion.db.h2.cacheSizeKb"));
+        url.append(";WRITE_DELAY=").append(getLong("orion.db.h2.writeDelayMs"));
+        url.append(";LOCK_TIMEOUT=").append(getLong("orion.db.h2.lockTimeoutMs"));
+        url.append(";RETENTION_TIME=").append(getLong("orion.db.h2.mvstore.retentionTimeMs"));
+        url.append(";MAX_COMPACT_TIME=").append(getLong("orion.db.h2.mvstore.maxCompactTimeMs"));
+        if (getBoolean("orion.db.h2.mvstore.compress"))
+            url.append(";COMPRESS=TRUE");
+        String extra = get("orion.db.h2.extra");
+        if (extra != null && !extra.isEmpty())
+            url.append(extra.startsWith(";") ? "" : ";").append(extra);
+        return url.toString();
+    }
+
+    public String getUser() {
+        String explicit = get("orion.db.user");
+        if (explicit != null)
+            return explicit;
+        return get(getDbType() == DatabaseConnection.DB_TYPE.MYSQL ? "orion.db.mysql.user" : "orion.db.h2.user");
+    }
+
+    public String getPassword() {
+        String explicit = get("orion.db.password");
+        if (explicit != null)
+            return explicit;
+        return get(getDbType() == DatabaseConnection.DB_TYPE.MYSQL ? "orion.db.mysql.password"
+                : "orion.db.h2.password");
+    }
+
+    public String getDriverClass() {
+        return getDbType() == DatabaseConnection.DB_TYPE.MYSQL ? "com.mysql.cj.jdbc.Driver" : "org.h2.Driver";
+    }
+
+    public int getPoolMinSize() {
+        return getInt("orion.db.pool.minSize");
+    }
+
+    public int getPoolMaxSize() {
+        return getInt("orion.db.pool.maxSize");
+    }
+
+    public long getPoolIdleTimeoutMs() {
+        return getLong("orion.db.pool.idleTimeoutMs");
+    }
+
+    public long getPoolBorrowTimeoutMs() {
+        return getLong("orion.db.pool.borrowTimeoutMs");
+    }
+
+    public long getPoolLeakThresholdMs() {
+        return getLong("orion.db.pool.leakThresholdMs");
+    }
+
+    public int getPoolValidationTimeoutSec() {
+        return getInt("orion.db.pool.validationTimeoutSec");
+    }
+
+    public int getStatementCacheSize() {
+        return getInt("orion.db.pool.statementCacheSize");
+    }
+
+    public long getRoomCacheTtlSeconds() {
+        return getLong("orion.cache.roomTtlSeconds");
+    }
+
+    public long getAvailabilityCacheTtlSeconds() {
+        return getLong("orion.cache.availabilityTtlSeconds");
+    }
+
+    public long getAnalyticsCacheTtlSeconds() {
+        return getLong("orion.cache.analyticsTtlSeconds");
+    }
+
+    public int getImportChunkSize() {
+        return getInt("orion.import.chunkSize");
+    }
+
+    // Empty when the nightly export is off
+    public String getExportDir() {
+        String dir = get("orion.export.dir");
+        return dir != null ? dir.trim() : "";
+    }
+
+    public String getExportFormat() {
+        return get("orion.export.format");
+    }
+
+    public boolean isExportGzip() {
+        return getBoolean("orion.export.gzip");
+    }
+
+    // Never prints the password
+    @Override
+    public String toString() {
+        return "DatabaseConfig[profile=" + profileName + ", type=" + getDbType() + ", url=" + getJdbcUrl()
+                + ", user=" + getUser() + ", pool=" + getPoolMinSize() + ".." + getPoolMaxSize() + "]";
+    }
+}
@@ -1,48 +1,86 @@
 package com.orionhotel.database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
 
-    // Configuration - Change this to switch between H2 and MySQL
-    private static final DB_TYPE CURRENT_DB = DB_TYPE.H2;
-
-    // H2 Configuration (Embedded - Creates file in project folder)
-    private static final String H2_URL = "jdbc:h2:./orion_hotel_db;AUTO_SERVER=TRUE";
-    private static final String H2_USER = "sa";
-    private static final String H2_PASSWORD = "";
-
-    // MySQL Configuration (Requires running MySQL server)
-    private static final String MYSQL_URL = "jdbc:mysql://localhost:3306/orion_hotel_db";
-    private static final String MYSQL_USER = "root";
-    private static final String MYSQL_PASSWORD = "password";
-
-    private static Connection connection;
+    // Settings come from orion-db.properties / environment, see DatabaseConfig
+    private static DatabaseConfig config;
+    private static ConnectionPool pool;
+    private static boolean shutdownHookRegistered;
 
     public enum DB_TYPE {
         H2, MYSQL
     }
 
+    // Connections come from the pool; closing one returns it to the pool.
+    // Inside Tx.call/run the thread's transaction connection is returned instead.
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
+        Connection joined = Tx.currentConnection();
+        if (joined != null)
+            return joined;
+        return getPool().getConnection();
+    }
+
+    public static synchronized ConnectionPool getPool() throws SQLException {
+        if (pool == null) {
+            DatabaseConfig cfg = getConfig();
             try {
-                if (CURRENT_DB == DB_TYPE.H2) {
-                    // H2 Driver is auto-loaded in newer versions, but for safety:
-                    Class.forName("org.h2.Driver");
-                    connection = DriverManager.getConnection(H2_URL, H2_USER, H2_PASSWORD);
-                    System.out.println("Connected to H2 Database.");
-                } else {
-                    Class.forName("com.mysql.cj.jdbc.Driver");
-                    connection = DriverManager.getConnection(MYSQL_URL, MYSQL_USER, MYSQL_PASSWORD);
-                    System.out.println("Connected to MySQL Database.");
-                }
+                // Drivers are auto-loaded in newer versions, but for safety:
+                Class.forName(cfg.getDriverClass());
             } catch (ClassNotFoundException e) {
                 throw new SQLException("Database Driver not found!", e);
             }
+            pool = createPool(cfg);
+            System.out.println("Connected to " + cfg.getDbType() + " Database (profile: " + cfg.getProfileName() + ").");
+            if (!shutdownHookRegistered) {
+                Runtime.getRuntime().addShutdownHook(new Thread(DatabaseConnection::shutdown, "orion-db-shutdown"));
+                shutdownHookRegistered = true;
+            }
+        }
+        return pool;
+    }
+
+    public static synchronized DatabaseConfig getConfig() {
+        if (config == null)
+            config = DatabaseConfig.load();
+        return config;
+    }
+
+    public static synchronized DB_TYPE getDbType() {
+        return getConfig().getDbType();
+    }
+
+    // Switches to another configuration (e.g. the bulk-import profile); open connections finish on the old pool
+    public static synchronized void reconfigure(DatabaseConfig newConfig) {
+        shutdown();
+        config = newConfig;
+    }
+
+    private static ConnectionPool createPool(DatabaseConfig cfg) throws SQLException {
+        ConnectionPool p = new ConnectionPool(cfg.getJdbcUrl(), cfg.getUser(), cfg.getPassword(),
+                cfg.getPoolMinSize(), cfg.getPoolMaxSize(), cfg.getPoolIdleTimeoutMs(), cfg.getPoolBorrowTimeoutMs(),
+                cfg.getPoolLeakThresholdMs(), cfg.getPoolValidationTimeoutSec(), cfg.getStatementCacheSize());
+        try {
+            p.warmUp();
+        } catch (SQLException e) {
+            p.shutdown();
+            throw e;
+        }
+        return p;
+    }
+
+    public static synchronized ConnectionPool.Stats getPoolStats() {
+        return pool != null ? pool.getStats() : null;
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            System.out.println("Closing database pool: " + pool.getStats());
+            pool.shutdown();
+            pool = null;
         }
-        return connection;
     }
 
     // Initialize tables (Helper for setup)
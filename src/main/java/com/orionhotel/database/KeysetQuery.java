@@ -0,0 +1,135 @@
+package com.orionhotel.database;
+
+import com.orionhotel.model.Page;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Page-at-a-time listing ordered by a unique integer key (the primary key):
+//
+//     SELECT ... WHERE (filter) AND key > ? ORDER BY key LIMIT size + 1
+//
+// The key range is an index seek wherever the page starts, unlike OFFSET, and rows
+// inserted or deleted between pages don't shift the pages that follow. The extra row only
+// tells whether another page exists. The first page also carries a total: the table's row
+// estimate from the catalog when unfiltered, otherwise a COUNT(*) with the filter.
+public final class KeysetQuery<T> {
+
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private final String columns;
+    private final String from;
+    private final String table;
+    private final String key;
+    private final String keyLabel;
+    private final boolean descending;
+    private final RowMapper<T> mapper;
+
+    // from may join other tables; table is the one the key belongs to (for the row estimate)
+    public KeysetQuery(String columns, String from, String table, String key, boolean descending,
+            RowMapper<T> mapper) {
+        this.columns = columns;
+        this.from = from;
+        this.table = table;
+        this.key = key;
+        this.keyLabel = key.substring(key.lastIndexOf('.') + 1);
+        this.descending = descending;
+        this.mapper = mapper;
+    }
+
+    public KeysetQuery(String table, String key, RowMapper<T> mapper) {
+        this("*", table, table, key, false, mapper);
+    }
+
+    // filter is a condition with ? placeholders for params, or null; after is the previous
+    // page's getNextKey(), null for the first page
+    public Page<T> fetch(Connection conn, String filter, List<?> params, Long after, int size) throws SQLException {
+        int limit = Page.clampSize(size);
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns).append(" FROM ").append(from);
+        String where = filter != null ? "(" + filter + ")" : null;
+        if (after != null) {
+            String seek = key + (descending ? " < ?" : " > ?");
+            where = where != null ? where + " AND " + seek : seek;
+        }
+        if (where != null)
+            sql.append(" WHERE ").append(where);
+        sql.append(" ORDER BY ").append(key).append(descending ? " DESC" : "").append(" LIMIT ").append(limit + 1);
+
+        List<T> items = new ArrayList<>(limit);
+        boolean more = false;
+        long lastKey = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int i = bind(pstmt, params);
+            if (after != null)
+                pstmt.setLong(i, after);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (items.size() == limit) {
+                        more = true;
+                        break;
+                    }
+                    items.add(mapper.map(rs));
+                    lastKey = rs.getLong(keyLabel);
+                }
+            }
+        }
+        long total = after == null ? estimateTotal(conn, filter, params, items.size(), more) : -1;
+        return new Page<>(items, more ? lastKey : null, total);
+    }
+
+    private long estimateTotal(Connection conn, String filter, List<?> params, int firstPage, boolean more)
+            throws SQLException {
+        if (!more)
+            return firstPage;
+        if (filter == null) {
+            long estimate = estimateRows(conn, table);
+            if (estimate >= firstPage)
+                return estimate;
+        }
+        String sql = "SELECT COUNT(*) FROM " + from + (filter != null ? " WHERE " + filter : "");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bind(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : firstPage;
+            }
+        }
+    }
+
+    // Row count from the catalog statistics, or -1 when the database doesn't say
+    public static long estimateRows(Connection conn, String table) throws SQLException {
+        String sql;
+        if (DatabaseConnection.getDbType() == DatabaseConnection.DB_TYPE.MYSQL) {
+            sql = "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+        } else {
+            sql = "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = SCHEMA() "
+                    + "AND TABLE_NAME = ?";
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, Migration.identifier(conn.getMetaData(), table));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    long rows = rs.getLong(1);
+                    if (!rs.wasNull())
+                        return rows;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int bind(PreparedStatement pstmt, List<?> params) throws SQLException {
+        int i = 1;
+        if (params != null) {
+            for (Object param : params) {
+                pstmt.setObject(i++, param);
+            }
+        }
+        return i;
+    }
+}
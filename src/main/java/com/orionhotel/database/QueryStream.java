@@ -0,0 +1,174 @@
+package com.orionhotel.database;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Row-by-row reads for exports and reports over tables too large to hold in a list:
+//
+//     try (Stream<Bill> bills = billingController.streamBills(from, to)) {
+//         bills.forEach(writer::write);
+//     }
+//
+// Each stream gets its own pooled connection (never a caller's transaction) and a
+// forward-only, read-only cursor. H2 runs the query with LAZY_QUERY_EXECUTION so rows are
+// produced as they are read; MySQL is given fetch size Integer.MIN_VALUE, which makes
+// Connector/J stream rows instead of buffering the whole result. Elsewhere FETCH_SIZE is
+// passed as a hint. Closing the stream releases everything; a stream that is never closed
+// holds its connection until the pool's leak detector reports it.
+public final class QueryStream {
+
+    public static final int FETCH_SIZE = 500;
+
+    // SQLException raised while the stream is being consumed; getCause() is the original
+    public static final class QueryStreamException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        QueryStreamException(SQLException cause) {
+            super(cause.getMessage(), cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+
+    private QueryStream() {
+    }
+
+    // Rows of the query, mapped lazily; must be closed (try-with-resources)
+    public static <T> Stream<T> stream(String sql, List<?> params, KeysetQuery.RowMapper<T> mapper)
+            throws SQLException {
+        Cursor cursor = Cursor.open(sql, params);
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!cursor.rs.next())
+                        return false;
+                    action.accept(mapper.map(cursor.rs));
+                    return true;
+                } catch (SQLException e) {
+                    throw new QueryStreamException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(cursor::close);
+    }
+
+    // Callback form: hands each row to action and closes everything; returns the row count
+    public static <T> long forEach(String sql, List<?> params, KeysetQuery.RowMapper<T> mapper,
+            Consumer<? super T> action) throws SQLException {
+        long count = 0;
+        try (Cursor cursor = Cursor.open(sql, params)) {
+            while (cursor.rs.next()) {
+                action.accept(mapper.map(cursor.rs));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // " WHERE column >= ? AND column < ?" for whichever bounds are non-null (empty when
+    // neither is), adding them to params. LocalDate and LocalDateTime bounds are converted.
+    public static String range(String column, Object from, Object to, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (from != null) {
+            conditions.add(column + " >= ?");
+            params.add(jdbcValue(from));
+        }
+        if (to != null) {
+            conditions.add(column + " < ?");
+            params.add(jdbcValue(to));
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static Object jdbcValue(Object value) {
+        if (value instanceof LocalDate)
+            return Date.valueOf((LocalDate) value);
+        if (value instanceof LocalDateTime)
+            return Timestamp.valueOf((LocalDateTime) value);
+        return value;
+    }
+
+    private static final class Cursor implements AutoCloseable {
+        private final Connection conn;
+        private final boolean lazy;
+        private PreparedStatement pstmt;
+        private ResultSet rs;
+
+        private Cursor(Connection conn, boolean lazy) {
+            this.conn = conn;
+            this.lazy = lazy;
+        }
+
+        static Cursor open(String sql, List<?> params) throws SQLException {
+            boolean mysql = DatabaseConnection.getDbType() == DatabaseConnection.DB_TYPE.MYSQL;
+            Connection conn = DatabaseConnection.getPool().getConnection();
+            Cursor cursor = new Cursor(conn, !mysql);
+            try {
+                if (cursor.lazy)
+                    setLazy(conn, true);
+                // Not the cached prepareStatement(String): this one carries cursor settings
+                cursor.pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                cursor.pstmt.setFetchSize(mysql ? Integer.MIN_VALUE : FETCH_SIZE);
+                int i = 1;
+                if (params != null) {
+                    for (Object param : params) {
+                        cursor.pstmt.setObject(i++, param);
+                    }
+                }
+                cursor.rs = cursor.pstmt.executeQuery();
+                return cursor;
+            } catch (SQLException | RuntimeException e) {
+                cursor.close();
+                throw e;
+            }
+        }
+
+        private static void setLazy(Connection conn, boolean on) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SET LAZY_QUERY_EXECUTION " + (on ? "TRUE" : "FALSE"));
+            }
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(rs);
+            closeQuietly(pstmt);
+            try {
+                if (lazy)
+                    setLazy(conn, false);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            closeQuietly(conn);
+        }
+
+        private static void closeQuietly(AutoCloseable resource) {
+            if (resource == null)
+                return;
+            try {
+                resource.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.orionhotel.database;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+// revenue_daily: settled revenue per bill date, payment method and status, so revenue reports
+// read a handful of rows instead of scanning bills. processPayment adds a bill in the same
+// transaction that marks it PAID; a paid bill's total never changes afterwards, so the rows
+// stay exact. rebuild() regenerates the table from bills.
+public final class RevenueRollup {
+
+    static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS revenue_daily (" +
+            "revenue_date DATE NOT NULL, " +
+            "method VARCHAR(20) NOT NULL, " +
+            "status VARCHAR(20) NOT NULL, " +
+            "bill_count INT NOT NULL, " +
+            "amount DECIMAL(14,2) NOT NULL, " +
+            "PRIMARY KEY (revenue_date, method, status))";
+
+    private RevenueRollup() {
+    }
+
+    // Adds one bill to its (date, method, status) row; runs on the caller's transaction
+    public static void record(Connection conn, LocalDate date, String method, String status, BigDecimal amount)
+            throws SQLException {
+        String sql;
+        if (DatabaseConnection.getDbType() == DatabaseConnection.DB_TYPE.MYSQL) {
+            sql = "INSERT INTO revenue_daily (revenue_date, method, status, bill_count, amount) VALUES (?, ?, ?, 1, ?) "
+                    + "ON DUPLICATE KEY UPDATE bill_count = bill_count + 1, amount = amount + VALUES(amount)";
+        } else {
+            sql = "MERGE INTO revenue_daily t USING (VALUES (CAST(? AS DATE), CAST(? AS VARCHAR(20)), "
+                    + "CAST(? AS VARCHAR(20)), CAST(? AS DECIMAL(14,2)))) s (revenue_date, method, status, amount) "
+                    + "ON t.revenue_date = s.revenue_date AND t.method = s.method AND t.status = s.status "
+                    + "WHEN MATCHED THEN UPDATE SET bill_count = t.bill_count + 1, amount = t.amount + s.amount "
+                    + "WHEN NOT MATCHED THEN INSERT (revenue_date, method, status, bill_count, amount) "
+                    + "VALUES (s.revenue_date, s.method, s.status, 1, s.amount)";
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setDate(1, Date.valueOf(date));
+            pstmt.setString(2, method);
+            pstmt.setString(3, status);
+            pstmt.setBigDecimal(4, amount);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Replaces the rollup with a fresh aggregate of the paid bills; returns the row count
+    public static int rebuild(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM revenue_daily");
+            int rows = stmt.executeUpdate("INSERT INTO revenue_daily (revenue_date, method, status, bill_count, amount) "
+                    + "SELECT bill_date, COALESCE(method, 'CASH'), status, COUNT(*), COALESCE(SUM(total_amount), 0) "
+                    + "FROM bills WHERE status = 'PAID' AND bill_date IS NOT NULL "
+                    + "GROUP BY bill_date, COALESCE(method, 'CASH'), status");
+            conn.commit();
+            return rows;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
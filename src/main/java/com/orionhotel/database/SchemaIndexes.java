@@ -0,0 +1,201 @@
+package com.orionhotel.database;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Secondary indexes for the predicates the controllers filter on. create() only creates what
+// is missing: an index is skipped when one with the same name exists or an existing index
+// already starts with the same columns (e.g. the index H2 and MySQL create for a foreign key).
+// Checked through JDBC metadata, since MySQL has no CREATE INDEX IF NOT EXISTS.
+//
+// INDEXES is the full current set, for the usage report and the settings screen. Schema
+// migrations carry their own copy of the indexes they add, so a new index goes both here
+// and in a new migration version.
+public class SchemaIndexes {
+
+    public static final class IndexDef {
+        final String name;
+        final String table;
+        final String[] columns;
+
+        IndexDef(String name, String table, String... columns) {
+            this.name = name;
+            this.table = table;
+            this.columns = columns;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public List<String> getColumns() {
+            return Arrays.asList(columns);
+        }
+
+        String ddl() {
+            return "CREATE INDEX " + name + " ON " + table + " (" + String.join(", ", columns) + ")";
+        }
+    }
+
+    public static final List<IndexDef> INDEXES = List.of(
+            new IndexDef("idx_reservations_room_dates", "reservations", "room_number", "status", "check_in",
+                    "check_out"),
+            new IndexDef("idx_reservations_status_checkin", "reservations", "status", "check_in"),
+            new IndexDef("idx_guests_status", "guests", "status"),
+            new IndexDef("idx_bills_guest_status", "bills", "guest_id", "status"),
+            new IndexDef("idx_bills_date_status", "bills", "bill_date", "status"),
+            new IndexDef("idx_service_charges_bill", "service_charges", "bill_id"),
+            new IndexDef("idx_inventory_logs_type_time", "inventory_logs", "type", "timestamp"),
+            new IndexDef("idx_notifications_role_read", "notifications", "target_role", "is_read", "created_at"),
+            new IndexDef("idx_housekeeping_tasks_status", "housekeeping_tasks", "status"),
+            new IndexDef("idx_bills_updated_at", "bills", "updated_at"),
+            new IndexDef("idx_service_charges_date", "service_charges", "charge_date"));
+
+    // Representative hot queries (label, SQL with literal sample values) for the usage report
+    private static final Map<String, String> HOT_QUERIES = new LinkedHashMap<>();
+
+    static {
+        HOT_QUERIES.put("Availability index load",
+                "SELECT reservation_id FROM reservations WHERE status NOT IN ('CANCELLED', 'COMPLETED')");
+        HOT_QUERIES.put("Reservations for a room and stay",
+                "SELECT COUNT(*) FROM reservations WHERE room_number = 101 AND status = 'CONFIRMED' "
+                        + "AND check_in < DATE '2030-01-05' AND check_out > DATE '2030-01-01'");
+        HOT_QUERIES.put("Upcoming reservations",
+                "SELECT * FROM reservations WHERE status = 'CONFIRMED' AND check_in > DATE '2030-01-01'");
+        HOT_QUERIES.put("Guests by status", "SELECT * FROM guests WHERE status = 'CHECKED_IN'");
+        HOT_QUERIES.put("Open bill for a guest", "SELECT * FROM bills WHERE guest_id = 1 AND status != 'PAID'");
+        HOT_QUERIES.put("Monthly revenue (rollup)", "SELECT SUM(amount) FROM revenue_daily "
+                + "WHERE revenue_date >= DATE '2030-01-01' AND revenue_date < DATE '2030-02-01' AND status = 'PAID'");
+        HOT_QUERIES.put("Service charges of a bill", "SELECT * FROM service_charges WHERE bill_id = 1");
+        HOT_QUERIES.put("Inventory consumption",
+                "SELECT * FROM inventory_logs WHERE type = 'CONSUME' AND timestamp >= TIMESTAMP '2030-01-01 00:00:00'");
+        HOT_QUERIES.put("Notifications for a role",
+                "SELECT * FROM notifications WHERE target_role = 'MANAGER' AND is_read = FALSE");
+        HOT_QUERIES.put("Pending housekeeping", "SELECT * FROM housekeeping_tasks WHERE status = 'PENDING'");
+    }
+
+    private SchemaIndexes() {
+    }
+
+    // Creates the missing indexes; returns how many were created
+    public static int createAll(Connection conn) throws SQLException {
+        return create(conn, INDEXES);
+    }
+
+    static int create(Connection conn, List<IndexDef> defs) throws SQLException {
+        int created = 0;
+        try (Statement stmt = conn.createStatement()) {
+            for (IndexDef def : defs) {
+                if (isCovered(conn, def))
+                    continue;
+                stmt.execute(def.ddl());
+                System.out.println("Created index " + def.name);
+                created++;
+            }
+        }
+        return created;
+    }
+
+    private static boolean isCovered(Connection conn, IndexDef def) throws SQLException {
+        for (Map.Entry<String, List<String>> existing : existingIndexes(conn, def.table).entrySet()) {
+            if (existing.getKey().equalsIgnoreCase(def.name))
+                return true;
+            List<String> cols = existing.getValue();
+            if (cols.size() < def.columns.length)
+                continue;
+            boolean prefix = true;
+            for (int i = 0; i < def.columns.length && prefix; i++) {
+                prefix = cols.get(i).equalsIgnoreCase(def.columns[i]);
+            }
+            if (prefix)
+                return true;
+        }
+        return false;
+    }
+
+    // Index name -> columns in index order
+    private static Map<String, List<String>> existingIndexes(Connection conn, String table) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        Map<String, TreeMap<Short, String>> ordered = new LinkedHashMap<>();
+        try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), conn.getSchema(), Migration.identifier(meta, table),
+                false, true)) {
+            while (rs.next()) {
+                String index = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (index == null || column == null)
+                    continue; // table statistics row
+                ordered.computeIfAbsent(index, k -> new TreeMap<>()).put(rs.getShort("ORDINAL_POSITION"), column);
+            }
+        }
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, TreeMap<Short, String>> e : ordered.entrySet()) {
+            result.put(e.getKey(), new ArrayList<>(e.getValue().values()));
+        }
+        return result;
+    }
+
+    // One line per defined index (present or missing), then the access path the database
+    // picks for each hot query according to EXPLAIN
+    public static List<String> usageReport(Connection conn) throws SQLException {
+        List<String> lines = new ArrayList<>();
+        lines.add("Indexes:");
+        for (IndexDef def : INDEXES) {
+            boolean present = isCovered(conn, def);
+            lines.add("  " + (present ? "[ok]      " : "[missing] ") + def.name + " ON " + def.table + " ("
+                    + String.join(", ", def.columns) + ")");
+        }
+
+        lines.add("Hot queries:");
+        boolean mysql = DatabaseConnection.getDbType() == DatabaseConnection.DB_TYPE.MYSQL;
+        try (Statement stmt = conn.createStatement()) {
+            for (Map.Entry<String, String> q : HOT_QUERIES.entrySet()) {
+                String plan;
+                try (ResultSet rs = stmt.executeQuery("EXPLAIN " + q.getValue())) {
+                    plan = mysql ? mysqlAccessPath(rs) : h2AccessPath(rs);
+                }
+                lines.add("  " + q.getKey() + ": " + plan);
+            }
+        }
+        return lines;
+    }
+
+    // H2 prints the chosen index as a comment after the table, e.g. "/* PUBLIC.IDX_GUESTS_STATUS: STATUS = 'X' */"
+    private static String h2AccessPath(ResultSet rs) throws SQLException {
+        if (!rs.next())
+            return "no plan";
+        String plan = rs.getString(1);
+        int start = plan.indexOf("/* ");
+        if (start < 0)
+            return "no plan";
+        int end = plan.indexOf("*/", start);
+        String access = plan.substring(start + 3, end < 0 ? plan.length() : end).trim();
+        if (access.endsWith(".tableScan"))
+            return "FULL SCAN";
+        int colon = access.indexOf(':');
+        String index = colon >= 0 ? access.substring(0, colon) : access;
+        return "index " + index.substring(index.lastIndexOf('.') + 1);
+    }
+
+    private static String mysqlAccessPath(ResultSet rs) throws SQLException {
+        if (!rs.next())
+            return "no plan";
+        String key = rs.getString("key");
+        String type = rs.getString("type");
+        if (key == null)
+            return "ALL".equalsIgnoreCase(type) ? "FULL SCAN" : "no index (" + type + ")";
+        return "index " + key + " (" + type + ")";
+    }
+}
@@ -3,23 +3,24 @@ package com.orionhotel.database;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 public class SchemaInit {
 
-    public static void createTables(Connection conn) throws SQLException {
-        try (Statement stmt = conn.createStatement()) {
-
+    // Tables as first shipped (schema version 1). Later schema changes are migrations in
+    // SchemaMigrations; don't edit these statements, the checksum of version 1 covers them.
+    static final List<String> BASELINE_TABLES = List.of(
             // 1. Staff Table
-            stmt.execute("CREATE TABLE IF NOT EXISTS staff (" +
+            "CREATE TABLE IF NOT EXISTS staff (" +
                     "staff_id INT AUTO_INCREMENT PRIMARY KEY, " +
                     "name VARCHAR(100) NOT NULL, " +
                     "role VARCHAR(50) NOT NULL, " +
                     "username VARCHAR(50) UNIQUE NOT NULL, " +
                     "password VARCHAR(255) NOT NULL, " + // In real app, store hashed
-                    "status VARCHAR(20) DEFAULT 'ACTIVE')");
+                    "status VARCHAR(20) DEFAULT 'ACTIVE')",
 
             // 2. Guests Table
-            stmt.execute("CREATE TABLE IF NOT EXISTS guests (" +
+            "CREATE TABLE IF NOT EXISTS guests (" +
                     "guest_id INT AUTO_INCREMENT PRIMARY KEY, " +
                     "full_name VARCHAR(100) NOT NULL, " +
                     "phone VARCHAR(20), " +
@@ -29,18 +30,18 @@ public class SchemaInit {
                     "room_number INT, " +
                     "check_in_date DATE, " +
                     "check_out_date DATE, " +
-                    "status VARCHAR(20) DEFAULT 'REGISTERED')");
+                    "status VARCHAR(20) DEFAULT 'REGISTERED')",
 
             // 3. Rooms Table
-            stmt.execute("CREATE TABLE IF NOT EXISTS rooms (" +
+            "CREATE TABLE IF NOT EXISTS rooms (" +
                     "room_id INT AUTO_INCREMENT PRIMARY KEY, " +
                     "room_number INT UNIQUE NOT NULL, " +
                     "type VARCHAR(50), " +
                     "price DECIMAL(10,2), " +
-                    "status VARCHAR(20) DEFAULT 'AVAILABLE')");
+                    "status VARCHAR(20) DEFAULT 'AVAILABLE')",
 
             // 4. Reservations Table
-            stmt.execute("CREATE TABLE IF NOT EXISTS reservations (" +
+            "CREATE TABLE IF NOT EXISTS reservations (" +
                     "reservation_id INT AUTO_INCREMENT PRIMARY KEY, " +
                     "guest_name VARCHAR(100), " +
                     "phone VARCHAR(20), " +
@@ -50,36 +51,36 @@ public class SchemaInit {
                     "check_in DATE, " +
                     "check_out DATE, " +
                     "num_guests INT, " +
-                    "status VARCHAR(20))");
+                    "status VARCHAR(20))",
 
             // 5. Inventory Table
-            stmt.execute("CREATE TABLE IF NOT EXISTS inventory (" +
+            "CREATE TABLE IF NOT EXISTS inventory (" +
                     "item_id INT AUTO_INCREMENT PRIMARY KEY, " +
                     "name VARCHAR(100) NOT NULL, " +
                     "category VARCHAR(50), " +
                     "quantity INT DEFAULT 0, " +
                     "min_level INT DEFAULT 10, " +
-                    "supplier VARCHAR(100))");
+                    "supplier VARCHAR(100))",
 
             // 6. Inventory Logs Table (for reports)
-            stmt.execute("CREATE TABLE IF NOT EXISTS inventory_logs (" +
+            "CREATE TABLE IF NOT EXISTS inventory_logs (" +
                     "log_id INT AUTO_INCREMENT PRIMARY KEY, " +
                     "item_id INT, " +
                     "type VARCHAR(20), " + // CONSUME or RESTOCK
                     "amount INT, " +
                     "timestamp TIMESTAMP, " +
-                    "FOREIGN KEY (item_id) REFERENCES inventory(item_id))");
+                    "FOREIGN KEY (item_id) REFERENCES inventory(item_id))",
 
             // 7. Notifications Table
-            stmt.execute("CREATE TABLE IF NOT EXISTS notifications (" +
+            "CREATE TABLE IF NOT EXISTS notifications (" +
                     "notif_id INT AUTO_INCREMENT PRIMARY KEY, " +
                     "message TEXT, " +
                     "target_role VARCHAR(20), " +
                     "is_read BOOLEAN DEFAULT FALSE, " +
-                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
 
             // 8. Housekeeping Tasks Table
-            stmt.execute("CREATE TABLE IF NOT EXISTS housekeeping_tasks (" +
+            "CREATE TABLE IF NOT EXISTS housekeeping_tasks (" +
                     "task_id INT AUTO_INCREMENT PRIMARY KEY, " +
                     "room_number INT, " +
                     "type VARCHAR(20), " + // CLEANING, DEEP_CLEAN, REPAIR
@@ -87,10 +88,10 @@ public class SchemaInit {
                     "staff_id INT, " +
                     "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
                     "FOREIGN KEY (room_number) REFERENCES rooms(room_number), " +
-                    "FOREIGN KEY (staff_id) REFERENCES staff(staff_id))");
+                    "FOREIGN KEY (staff_id) REFERENCES staff(staff_id))",
 
             // 9. Maintenance Requests Table
-            stmt.execute("CREATE TABLE IF NOT EXISTS maintenance_requests (" +
+            "CREATE TABLE IF NOT EXISTS maintenance_requests (" +
                     "request_id INT AUTO_INCREMENT PRIMARY KEY, " +
                     "room_number INT, " +
                     "issue_type VARCHAR(50), " +
@@ -100,15 +101,15 @@ public class SchemaInit {
                     "tech_id INT, " +
                     "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
                     "FOREIGN KEY (room_number) REFERENCES rooms(room_number), " +
-                    "FOREIGN KEY (tech_id) REFERENCES staff(staff_id))");
+                    "FOREIGN KEY (tech_id) REFERENCES staff(staff_id))",
 
             // 10. System Settings Table
-            stmt.execute("CREATE TABLE IF NOT EXISTS system_settings (" +
+            "CREATE TABLE IF NOT EXISTS system_settings (" +
                     "setting_key VARCHAR(50) PRIMARY KEY, " +
-                    "setting_value TEXT)");
+                    "setting_value TEXT)",
 
             // 11. Bills Table
-            stmt.execute("CREATE TABLE IF NOT EXISTS bills (" +
+            "CREATE TABLE IF NOT EXISTS bills (" +
                     "bill_id INT AUTO_INCREMENT PRIMARY KEY, " +
                     "guest_id INT, " +
                     "guest_name VARCHAR(100), " +
@@ -119,10 +120,10 @@ public class SchemaInit {
                     "status VARCHAR(20), " + // PAID, UNPAID, PARTIAL
                     "method VARCHAR(20), " + // CASH, CARD, etc.
                     "bill_date DATE, " +
-                    "FOREIGN KEY (guest_id) REFERENCES guests(guest_id))");
+                    "FOREIGN KEY (guest_id) REFERENCES guests(guest_id))",
 
             // 12. Service Charges Table
-            stmt.execute("CREATE TABLE IF NOT EXISTS service_charges (" +
+            "CREATE TABLE IF NOT EXISTS service_charges (" +
                     "charge_id INT AUTO_INCREMENT PRIMARY KEY, " +
                     "bill_id INT, " +
                     "service_type VARCHAR(100), " +
@@ -130,6 +131,15 @@ public class SchemaInit {
                     "charge_date DATE, " +
                     "FOREIGN KEY (bill_id) REFERENCES bills(bill_id))");
 
+    // Brings the database up to the latest schema version; a no-op beyond one query when current
+    public static void createTables(Connection conn) throws SQLException {
+        SchemaMigrator.migrate(conn);
+        System.out.println("Database schema initialized successfully.");
+    }
+
+    static void seedDefaults(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+
             // Seed default settings if empty
             var rsSettings = stmt.executeQuery("SELECT COUNT(*) FROM system_settings");
             if (rsSettings.next() && rsSettings.getInt(1) == 0) {
@@ -161,8 +171,6 @@ public class SchemaInit {
                         "(105, 'Double', 150.00, 'AVAILABLE')");
                 System.out.println("Seeded default rooms.");
             }
-
-            System.out.println("Database schema initialized successfully.");
         }
     }
 }
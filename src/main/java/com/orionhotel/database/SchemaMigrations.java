@@ -0,0 +1,91 @@
+package com.orionhotel.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Every schema change, oldest first. A released migration is never edited (its checksum is
+// recorded); change the schema by appending a new version.
+final class SchemaMigrations {
+
+    // As released with V2; SchemaIndexes.INDEXES may grow, this list doesn't
+    private static final List<SchemaIndexes.IndexDef> V2_INDEXES = List.of(
+            new SchemaIndexes.IndexDef("idx_reservations_room_dates", "reservations", "room_number", "status",
+                    "check_in", "check_out"),
+            new SchemaIndexes.IndexDef("idx_reservations_status_checkin", "reservations", "status", "check_in"),
+            new SchemaIndexes.IndexDef("idx_guests_status", "guests", "status"),
+            new SchemaIndexes.IndexDef("idx_bills_guest_status", "bills", "guest_id", "status"),
+            new SchemaIndexes.IndexDef("idx_bills_date_status", "bills", "bill_date", "status"),
+            new SchemaIndexes.IndexDef("idx_service_charges_bill", "service_charges", "bill_id"),
+            new SchemaIndexes.IndexDef("idx_inventory_logs_type_time", "inventory_logs", "type", "timestamp"),
+            new SchemaIndexes.IndexDef("idx_notifications_role_read", "notifications", "target_role", "is_read",
+                    "created_at"),
+            new SchemaIndexes.IndexDef("idx_housekeeping_tasks_status", "housekeeping_tasks", "status"));
+
+    private static final List<SchemaIndexes.IndexDef> V7_INDEXES = List.of(
+            new SchemaIndexes.IndexDef("idx_bills_updated_at", "bills", "updated_at"),
+            new SchemaIndexes.IndexDef("idx_service_charges_date", "service_charges", "charge_date"));
+
+    private SchemaMigrations() {
+    }
+
+    static List<Migration> all() {
+        List<Migration> migrations = new ArrayList<>();
+        migrations.add(new Migration(1, "Baseline schema and default data", baseline()));
+        migrations.add(new Migration(2, "Secondary indexes for hot lookups",
+                Migration.code("Create missing SchemaIndexes (initial set)",
+                        conn -> SchemaIndexes.create(conn, V2_INDEXES))));
+        migrations.add(new Migration(3, "Staff phone and email",
+                Migration.addColumn("staff", "phone", "VARCHAR(20)"),
+                Migration.addColumn("staff", "email", "VARCHAR(100)")));
+        migrations.add(new Migration(4, "Money columns as DECIMAL(12,2)",
+                concat(toDecimal("bills", "bill_id", "room_charges"),
+                        toDecimal("bills", "bill_id", "taxes"),
+                        toDecimal("bills", "bill_id", "discount"),
+                        toDecimal("bills", "bill_id", "total_amount"),
+                        toDecimal("service_charges", "charge_id", "amount"))));
+        migrations.add(new Migration(5, "Running services total on bills",
+                Migration.addColumn("bills", "services_total", "DECIMAL(12,2)"),
+                Migration.backfill("bills", "bill_id", "services_total = COALESCE((SELECT SUM(sc.amount) FROM "
+                        + "service_charges sc WHERE sc.bill_id = bills.bill_id), 0)", "services_total IS NULL", 1000)));
+        migrations.add(new Migration(6, "Daily revenue rollup",
+                Migration.sql(RevenueRollup.CREATE_TABLE),
+                Migration.code("Fill revenue_daily from paid bills", RevenueRollup::rebuild)));
+        // Bills written before V7 get their bill date as the change time
+        migrations.add(new Migration(7, "Bill change time for date-ranged exports",
+                Migration.addColumn("bills", "updated_at", "TIMESTAMP"),
+                Migration.backfill("bills", "bill_id", "updated_at = bill_date",
+                        "updated_at IS NULL AND bill_date IS NOT NULL", 1000),
+                Migration.code("Create export range indexes", conn -> SchemaIndexes.create(conn, V7_INDEXES))));
+        return migrations;
+    }
+
+    // DOUBLE -> DECIMAL(12,2) without rewriting the table in one statement: new column,
+    // batched copy, then swap it in under the old name
+    private static Migration.Step[] toDecimal(String table, String key, String column) {
+        String temp = column + "_dec";
+        String copy = "ROUND(" + column + ", 2)";
+        return new Migration.Step[] {
+                Migration.addColumn(table, temp, "DECIMAL(12,2)"),
+                Migration.backfill(table, key, temp + " = " + copy, temp + " IS NULL AND " + column + " IS NOT NULL",
+                        1000),
+                Migration.swapColumn(table, key, temp, column, copy) };
+    }
+
+    private static Migration.Step[] concat(Migration.Step[]... groups) {
+        List<Migration.Step> steps = new ArrayList<>();
+        for (Migration.Step[] group : groups) {
+            steps.addAll(List.of(group));
+        }
+        return steps.toArray(new Migration.Step[0]);
+    }
+
+    // Idempotent, so a database created before schema_version existed adopts version 1 as is
+    private static Migration.Step[] baseline() {
+        List<Migration.Step> steps = new ArrayList<>();
+        for (String ddl : SchemaInit.BASELINE_TABLES) {
+            steps.add(Migration.sql(ddl));
+        }
+        steps.add(Migration.code("Seed default settings, admin user and rooms when empty", SchemaInit::seedDefaults));
+        return steps.toArray(new Migration.Step[0]);
+    }
+}
@@ -0,0 +1,196 @@
+package com.orionhotel.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Applies SchemaMigrations in version order and records each one in schema_version
+// (version, description, checksum, applied_at, duration_ms). When every version is already
+// recorded, startup costs one metadata lookup and one SELECT and issues no DDL.
+// A recorded checksum that no longer matches the code only produces a warning.
+//
+// Desks starting together take turns: pending migrations are applied while holding a row
+// lock (version 0 in schema_version, selected FOR UPDATE) on a second connection, and the
+// applied versions are read again once it is held, so each version runs exactly once.
+public final class SchemaMigrator {
+
+    static final String VERSION_TABLE = "schema_version";
+    static final String PROGRESS_TABLE = "schema_migration_progress";
+    private static final int LOCK_VERSION = 0;
+    private static final int H2_LOCK_TIMEOUT = 50200;
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+
+    // Last committed key of a batched step, so an interrupted backfill resumes after it
+    public static final class Progress {
+        private final Connection conn;
+        private final int version;
+        private final int step;
+
+        Progress(Connection conn, int version, int step) {
+            this.conn = conn;
+            this.version = version;
+            this.step = step;
+        }
+
+        public long lastKey(long fallback) throws SQLException {
+            String sql = "SELECT last_key FROM " + PROGRESS_TABLE + " WHERE version = ? AND step = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, version);
+                pstmt.setInt(2, step);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : fallback;
+                }
+            }
+        }
+
+        // Runs on the caller's connection, so it commits together with the chunk it describes
+        public void save(long lastKey) throws SQLException {
+            String update = "UPDATE " + PROGRESS_TABLE + " SET last_key = ? WHERE version = ? AND step = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(update)) {
+                pstmt.setLong(1, lastKey);
+                pstmt.setInt(2, version);
+                pstmt.setInt(3, step);
+                if (pstmt.executeUpdate() > 0)
+                    return;
+            }
+            String insert = "INSERT INTO " + PROGRESS_TABLE + " (version, step, last_key) VALUES (?, ?, ?)";
+            try (PreparedStatement pstmt = conn.prepareStatement(insert)) {
+                pstmt.setInt(1, version);
+                pstmt.setInt(2, step);
+                pstmt.setLong(3, lastKey);
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    private SchemaMigrator() {
+    }
+
+    public static void migrate(Connection conn) throws SQLException {
+        List<Migration> migrations = SchemaMigrations.all();
+        Map<Integer, String> applied = Migration.tableExists(conn, VERSION_TABLE) ? loadApplied(conn) : null;
+
+        if (applied == null || hasPending(migrations, applied)) {
+            createBookkeepingTables(conn);
+            // Its own connection: steps commit on conn, which would release a lock taken there
+            try (Connection lockConn = DatabaseConnection.getPool().getConnection()) {
+                lock(lockConn);
+                try {
+                    applied = loadApplied(conn);
+                    for (Migration m : migrations) {
+                        if (!applied.containsKey(m.getVersion()))
+                            apply(conn, m);
+                    }
+                } finally {
+                    lockConn.rollback();
+                    lockConn.setAutoCommit(true);
+                }
+            }
+        }
+        for (Migration m : migrations) {
+            String recorded = applied.get(m.getVersion());
+            if (recorded != null && !recorded.equals(m.checksum())) {
+                System.err.println("Warning: schema migration V" + m.getVersion() + " (" + m.getDescription()
+                        + ") has changed since it was applied; recorded checksum " + recorded);
+            }
+        }
+    }
+
+    private static boolean hasPending(List<Migration> migrations, Map<Integer, String> applied) {
+        for (Migration m : migrations) {
+            if (!applied.containsKey(m.getVersion()))
+                return true;
+        }
+        return false;
+    }
+
+    // Leaves lockConn in an open transaction holding the lock row
+    private static void lock(Connection lockConn) throws SQLException {
+        String insert = "INSERT INTO " + VERSION_TABLE + " (version, description) VALUES (?, 'migration lock')";
+        try (PreparedStatement pstmt = lockConn.prepareStatement(insert)) {
+            pstmt.setInt(1, LOCK_VERSION);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            // Already there, created by an earlier run or another desk
+        }
+        lockConn.setAutoCommit(false);
+        String select = "SELECT version FROM " + VERSION_TABLE + " WHERE version = " + LOCK_VERSION + " FOR UPDATE";
+        while (true) {
+            try (Statement stmt = lockConn.createStatement();
+                    ResultSet rs = stmt.executeQuery(select)) {
+                if (!rs.next())
+                    throw new SQLException("Schema migration lock row is missing from " + VERSION_TABLE);
+                return;
+            } catch (SQLException e) {
+                if (e.getErrorCode() != H2_LOCK_TIMEOUT && e.getErrorCode() != MYSQL_LOCK_WAIT_TIMEOUT)
+                    throw e;
+                lockConn.rollback();
+                System.out.println("Waiting for another desk to finish migrating the schema...");
+            }
+        }
+    }
+
+    private static Map<Integer, String> loadApplied(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM " + VERSION_TABLE
+                        + " WHERE version <> " + LOCK_VERSION)) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+        return applied;
+    }
+
+    private static void createBookkeepingTables(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + VERSION_TABLE + " (" +
+                    "version INT PRIMARY KEY, " +
+                    "description VARCHAR(200), " +
+                    "checksum VARCHAR(64), " +
+                    "applied_at TIMESTAMP, " +
+                    "duration_ms BIGINT)");
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + PROGRESS_TABLE + " (" +
+                    "version INT, " +
+                    "step INT, " +
+                    "last_key BIGINT, " +
+                    "PRIMARY KEY (version, step))");
+        }
+    }
+
+    private static void apply(Connection conn, Migration m) throws SQLException {
+        System.out.println("Applying schema migration V" + m.getVersion() + ": " + m.getDescription());
+        long started = System.currentTimeMillis();
+        List<Migration.Step> steps = m.getSteps();
+        for (int i = 0; i < steps.size(); i++) {
+            steps.get(i).run(conn, new Progress(conn, m.getVersion(), i));
+        }
+        long duration = System.currentTimeMillis() - started;
+
+        String sql = "INSERT INTO " + VERSION_TABLE
+                + " (version, description, checksum, applied_at, duration_ms) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, m.getVersion());
+            pstmt.setString(2, m.getDescription());
+            pstmt.setString(3, m.checksum());
+            pstmt.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            pstmt.setLong(5, duration);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            // Another desk started at the same time and recorded it first; the steps are idempotent
+            if (!loadApplied(conn).containsKey(m.getVersion()))
+                throw e;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM " + PROGRESS_TABLE + " WHERE version = ?")) {
+            pstmt.setInt(1, m.getVersion());
+            pstmt.executeUpdate();
+        }
+        System.out.println("Schema migration V" + m.getVersion() + " done in " + duration + " ms");
+    }
+}
@@ -0,0 +1,253 @@
+package com.orionhotel.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+// LRU cache of PreparedStatements keyed by SQL text, owned by a single pooled connection.
+// Handed-out statements are proxies: close() clears parameters, restores any changed
+// limits (max rows, fetch size, timeout) and parks the statement for the next
+// prepareStatement() with the same SQL instead of closing it. Each loan has a generation;
+// a proxy from an earlier loan (leaked, then reclaimed by releaseAll) acts as closed, so it
+// can't reach the statement its next borrower is using.
+// Only used by the thread that currently holds the connection, so no locking.
+class StatementCache {
+
+    private final Connection physical;
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection physical, int maxSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    // autoGeneratedKeys < 0 means the plain prepareStatement(String) variant
+    PreparedStatement prepare(Connection owner, String sql, int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.evicted) {
+            entries.remove(key); // could not be reset when last given back
+            entry = null;
+        }
+        if (entry != null) {
+            if (entry.inUse) {
+                // Same SQL already open on this connection (e.g. nested call); don't share it
+                misses.incrementAndGet();
+                return prepareUncached(sql, autoGeneratedKeys);
+            }
+            hits.incrementAndGet();
+            entry.inUse = true;
+            return entry.proxy(owner);
+        }
+
+        misses.incrementAndGet();
+        entry = new Entry(prepareUncached(sql, autoGeneratedKeys));
+        entry.inUse = true;
+        entries.put(key, entry);
+        evictOverflow();
+        return entry.proxy(owner);
+    }
+
+    private PreparedStatement prepareUncached(String sql, int autoGeneratedKeys) throws SQLException {
+        return autoGeneratedKeys < 0 ? physical.prepareStatement(sql)
+                : physical.prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            Entry eldest = it.next();
+            it.remove();
+            evictions.incrementAndGet();
+            if (eldest.inUse) {
+                eldest.evicted = true; // closed for real when the caller is done with it
+            } else {
+                closeQuietly(eldest.statement);
+            }
+        }
+    }
+
+    // Called when the connection goes back to the pool; statements the caller forgot to close are reclaimed
+    void releaseAll() {
+        for (Entry e : entries.values()) {
+            if (e.inUse)
+                e.giveBack();
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void clear() {
+        for (Entry e : entries.values()) {
+            closeQuietly(e.statement);
+        }
+        entries.clear();
+    }
+
+    private static void closeQuietly(Statement s) {
+        try {
+            s.close();
+        } catch (SQLException ignored) {
+            // physical connection is probably gone already
+        }
+    }
+
+    private static final class Key {
+        final String sql;
+        final int autoGeneratedKeys;
+
+        Key(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key k = (Key) o;
+            return autoGeneratedKeys == k.autoGeneratedKeys && sql.equals(k.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, autoGeneratedKeys);
+        }
+    }
+
+    private static final class Entry {
+        final PreparedStatement statement;
+        boolean inUse;
+        boolean evicted;
+        int generation;
+        // Values from before the current borrower's first setter call, restored on give-back
+        boolean settingsChanged;
+        int maxRows;
+        int fetchSize;
+        int queryTimeout;
+        int fetchDirection;
+        int maxFieldSize;
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        PreparedStatement proxy(Connection owner) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, new Handle(this, owner, generation));
+        }
+
+        void saveSettings() throws SQLException {
+            maxRows = statement.getMaxRows();
+            fetchSize = statement.getFetchSize();
+            queryTimeout = statement.getQueryTimeout();
+            fetchDirection = statement.getFetchDirection();
+            maxFieldSize = statement.getMaxFieldSize();
+            settingsChanged = true;
+        }
+
+        void giveBack() {
+            generation++;
+            try {
+                ResultSet open = statement.getResultSet();
+                if (open != null)
+                    open.close();
+                statement.clearParameters();
+                statement.clearBatch();
+                if (settingsChanged) {
+                    statement.setMaxRows(maxRows);
+                    statement.setFetchSize(fetchSize);
+                    statement.setQueryTimeout(queryTimeout);
+                    statement.setFetchDirection(fetchDirection);
+                    statement.setMaxFieldSize(maxFieldSize);
+                    settingsChanged = false;
+                }
+            } catch (SQLException e) {
+                evicted = true;
+            }
+            inUse = false;
+            if (evicted)
+                closeQuietly(statement);
+        }
+    }
+
+    private static final class Handle implements InvocationHandler {
+        private final Entry entry;
+        private final Connection owner;
+        private final int generation;
+        private boolean closed;
+
+        Handle(Entry entry, Connection owner, int generation) {
+            this.entry = entry;
+            this.owner = owner;
+            this.generation = generation;
+        }
+
+        // Closed by its caller, or reclaimed with the connection and maybe lent out again
+        private boolean isDone() {
+            return closed || generation != entry.generation;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!isDone())
+                        entry.giveBack();
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return isDone() || entry.statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + entry.statement + "]";
+                default:
+                    break;
+            }
+            if (isDone())
+                throw new SQLException("Statement is closed");
+            switch (method.getName()) {
+                case "setMaxRows":
+                case "setLargeMaxRows":
+                case "setFetchSize":
+                case "setQueryTimeout":
+                case "setFetchDirection":
+                case "setMaxFieldSize":
+                    if (!entry.settingsChanged)
+                        entry.saveSettings();
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(entry.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
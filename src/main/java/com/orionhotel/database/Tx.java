@@ -0,0 +1,227 @@
+package com.orionhotel.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Unit of work spanning several controller calls:
+//
+//     Tx.call(conn -> {
+//         roomController.bookRoom(101);   // joins this transaction
+//         ... UPDATE guests ...
+//         return true;
+//     });
+//
+// While a unit of work is open, DatabaseConnection.getConnection() on the same thread
+// returns the transaction's connection (close() is a no-op), so existing controller
+// methods join without changing their signatures. Nested Tx calls join the outer one.
+// Everything is committed once at the end of the outermost call, or rolled back if the
+// work throws, calls setRollbackOnly(), or any statement inside it failed (even if a
+// joined controller caught and printed the SQLException).
+public final class Tx {
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface VoidWork {
+        void execute(Connection conn) throws SQLException;
+    }
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private Tx() {
+    }
+
+    public static <T> T call(Work<T> work) throws SQLException {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            try {
+                return work.execute(scope.joined);
+            } catch (SQLException | RuntimeException | Error e) {
+                scope.failed = true;
+                throw e;
+            }
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            scope = new Scope(conn);
+            CURRENT.set(scope);
+            try {
+                T result = work.execute(scope.joined);
+                if (scope.failed) {
+                    conn.rollback();
+                    throw new SQLException("Transaction rolled back: a statement failed inside the unit of work");
+                }
+                if (scope.rollbackOnly) {
+                    conn.rollback();
+                } else {
+                    conn.commit();
+                    scope.runAfterCommit();
+                }
+                return result;
+            } catch (SQLException | RuntimeException | Error e) {
+                rollbackQuietly(conn, e);
+                throw e;
+            } finally {
+                CURRENT.remove();
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    public static void run(VoidWork work) throws SQLException {
+        call(conn -> {
+            work.execute(conn);
+            return null;
+        });
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    // Ends the current unit of work with a rollback instead of a commit, without an exception
+    public static void setRollbackOnly() {
+        Scope scope = CURRENT.get();
+        if (scope == null)
+            throw new IllegalStateException("No transaction is active on this thread");
+        scope.rollbackOnly = true;
+    }
+
+    // Runs the action once the current unit of work commits (dropped on rollback),
+    // or right away when no unit of work is open. Used to keep in-memory caches in step.
+    public static void afterCommit(Runnable action) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            action.run();
+        } else {
+            scope.afterCommit.add(action);
+        }
+    }
+
+    // Connection of the unit of work open on this thread, or null
+    static Connection currentConnection() {
+        Scope scope = CURRENT.get();
+        return scope != null ? scope.joined : null;
+    }
+
+    private static void rollbackQuietly(Connection conn, Throwable cause) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static final class Scope {
+        final Connection joined;
+        boolean rollbackOnly;
+        boolean failed;
+        final List<Runnable> afterCommit = new ArrayList<>();
+
+        Scope(Connection conn) {
+            this.joined = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new JoinedConnection(conn, this));
+        }
+
+        void runAfterCommit() {
+            for (Runnable action : afterCommit) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace(); // the data is committed; don't report the unit of work as failed
+                }
+            }
+        }
+    }
+
+    // The transaction's connection as seen by joined code: close() and commit() are left to Tx
+    private static final class JoinedConnection implements InvocationHandler {
+        private final Connection target;
+        private final Scope scope;
+
+        JoinedConnection(Connection target, Scope scope) {
+            this.target = target;
+            this.scope = scope;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                case "commit":
+                    return null;
+                case "rollback":
+                    if (args == null) {
+                        scope.rollbackOnly = true;
+                        return null;
+                    }
+                    break;
+                case "setAutoCommit":
+                    if (Boolean.TRUE.equals(args[0]))
+                        return null;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException)
+                    scope.failed = true;
+                throw e.getCause();
+            }
+            if (result instanceof Statement) {
+                Class<?> type = method.getReturnType();
+                return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                        new FailureTracking(result, scope));
+            }
+            return result;
+        }
+    }
+
+    // Marks the unit of work as failed when a statement throws, even if the caller swallows it
+    private static final class FailureTracking implements InvocationHandler {
+        private final Object target;
+        private final Scope scope;
+
+        FailureTracking(Object target, Scope scope) {
+            this.target = target;
+            this.scope = scope;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException && !"close".equals(method.getName()))
+                    scope.failed = true;
+                throw e.getCause();
+            }
+        }
+    }
+}
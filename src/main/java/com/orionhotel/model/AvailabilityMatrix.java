@@ -0,0 +1,61 @@
+package com.orionhotel.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Free-room counts per room type per night, stored row-major in one int array
+// (row = room type, column = night starting at getFrom()).
+public class AvailabilityMatrix implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String[] roomTypes;
+    private final int[] totalRooms;
+    private final LocalDate from;
+    private final int nights;
+    private final int[] free;
+
+    public AvailabilityMatrix(String[] roomTypes, int[] totalRooms, LocalDate from, int nights, int[] free) {
+        this.roomTypes = roomTypes;
+        this.totalRooms = totalRooms;
+        this.from = from;
+        this.nights = nights;
+        this.free = free;
+    }
+
+    public int getTypeCount() {
+        return roomTypes.length;
+    }
+
+    public String getRoomType(int typeIndex) {
+        return roomTypes[typeIndex];
+    }
+
+    public int getTotalRooms(int typeIndex) {
+        return totalRooms[typeIndex];
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public int getNights() {
+        return nights;
+    }
+
+    public LocalDate getDate(int night) {
+        return from.plusDays(night);
+    }
+
+    public int getFree(int typeIndex, int night) {
+        return free[typeIndex * nights + night];
+    }
+
+    // Row index of the given room type (case-insensitive), or -1
+    public int indexOfType(String roomType) {
+        for (int i = 0; i < roomTypes.length; i++) {
+            if (roomTypes[i].equalsIgnoreCase(roomType))
+                return i;
+        }
+        return -1;
+    }
+}
@@ -1,7 +1,9 @@
 package com.orionhotel.model;
 
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Currency;
 import java.util.List;
 
 import java.io.Serializable;
@@ -11,11 +13,14 @@ public class Bill implements Serializable {
     private int billId;
     private int guestId;
     private String guestName;
-    private double roomCharges;
+    // Amounts are in minor units of currency (see Money); the double accessors are for display
+    private Currency currency = Money.DEFAULT_CURRENCY;
+    private long roomCharges;
     private List<ServiceCharge> serviceCharges;
-    private double taxes;
-    private double discount;
-    private double totalAmount;
+    private long servicesTotal; // running sum of the charges, kept on the bill row
+    private long taxes;
+    private long discount;
+    private long totalAmount;
     private PaymentStatus paymentStatus;
     private PaymentMethod paymentMethod;
     private LocalDate billDate;
@@ -31,14 +36,19 @@ public class Bill implements Serializable {
     public static class ServiceCharge implements Serializable {
         private static final long serialVersionUID = 1L;
         public String serviceType;
-        public double amount;
+        public long amountMinor;
         public LocalDate date;
 
-        public ServiceCharge(String serviceType, double amount, LocalDate date) {
+        public ServiceCharge(String serviceType, long amountMinor, LocalDate date) {
             this.serviceType = serviceType;
-            this.amount = amount;
+            this.amountMinor = amountMinor;
             this.date = date;
         }
+
+        // Same scale as the DECIMAL(12,2) amount column
+        public double getAmount() {
+            return Money.toDouble(amountMinor, 2);
+        }
     }
 
     public Bill(int billId, int guestId, String guestName) {
@@ -75,50 +85,97 @@ public class Bill implements Serializable {
         this.guestName = guestName;
     }
 
-    public double getRoomCharges() {
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(Currency currency) {
+        this.currency = currency;
+    }
+
+    private int digits() {
+        return Money.digits(currency);
+    }
+
+    public long getRoomChargesMinor() {
         return roomCharges;
     }
 
-    public void setRoomCharges(double roomCharges) {
+    public void setRoomChargesMinor(long roomCharges) {
         this.roomCharges = roomCharges;
     }
 
+    public double getRoomCharges() {
+        return Money.toDouble(roomCharges, digits());
+    }
+
+    public void setRoomCharges(double roomCharges) {
+        this.roomCharges = Money.toMinor(roomCharges, digits());
+    }
+
     public List<ServiceCharge> getServiceCharges() {
         return serviceCharges;
     }
 
+    // Adds a charge read from the database; servicesTotal already includes it
     public void addServiceCharge(ServiceCharge charge) {
         this.serviceCharges.add(charge);
     }
 
+    // Adds a new charge and moves the running services total by its amount
+    public void postServiceCharge(ServiceCharge charge) {
+        this.serviceCharges.add(charge);
+        this.servicesTotal = Math.addExact(servicesTotal, charge.amountMinor);
+    }
+
     public void setServiceCharges(List<ServiceCharge> serviceCharges) {
         this.serviceCharges = serviceCharges;
     }
 
-    public double getTaxes() {
+    public long getTaxesMinor() {
         return taxes;
     }
 
-    public void setTaxes(double taxes) {
+    public void setTaxesMinor(long taxes) {
         this.taxes = taxes;
     }
 
-    public double getDiscount() {
+    public double getTaxes() {
+        return Money.toDouble(taxes, digits());
+    }
+
+    public long getDiscountMinor() {
         return discount;
     }
 
-    public void setDiscount(double discount) {
+    public void setDiscountMinor(long discount) {
         this.discount = discount;
     }
 
-    public double getTotalAmount() {
+    public double getDiscount() {
+        return Money.toDouble(discount, digits());
+    }
+
+    public void setDiscount(double discount) {
+        this.discount = Money.toMinor(discount, digits());
+    }
+
+    public long getTotalAmountMinor() {
         return totalAmount;
     }
 
-    public void setTotalAmount(double totalAmount) {
+    public void setTotalAmountMinor(long totalAmount) {
         this.totalAmount = totalAmount;
     }
 
+    public double getTotalAmount() {
+        return Money.toDouble(totalAmount, digits());
+    }
+
+    public Money getTotal() {
+        return Money.ofMinor(totalAmount, currency);
+    }
+
     public PaymentStatus getPaymentStatus() {
         return paymentStatus;
     }
@@ -143,10 +200,31 @@ public class Bill implements Serializable {
         this.billDate = billDate;
     }
 
+    public long getServicesTotalMinor() {
+        return servicesTotal;
+    }
+
+    public void setServicesTotalMinor(long servicesTotal) {
+        this.servicesTotal = servicesTotal;
+    }
+
+    // Re-sums the loaded charges (only meaningful when all of them were loaded)
+    public long sumServiceCharges() {
+        long sum = 0;
+        for (int i = 0, n = serviceCharges.size(); i < n; i++) {
+            sum = Math.addExact(sum, serviceCharges.get(i).amountMinor);
+        }
+        return sum;
+    }
+
     public void recalculateTotal(double taxRate) {
-        double servicesTotal = serviceCharges.stream().mapToDouble(sc -> sc.amount).sum();
-        double subtotal = roomCharges + servicesTotal;
-        taxes = subtotal * taxRate;
+        recalculateTotal(Money.ratePpm(taxRate), Money.DEFAULT_ROUNDING);
+    }
+
+    // O(1) from the running subtotals, no allocation: tax is rounded once on the subtotal
+    public void recalculateTotal(long taxRatePpm, RoundingMode rounding) {
+        long subtotal = Math.addExact(roomCharges, servicesTotal);
+        taxes = Money.applyRate(subtotal, taxRatePpm, rounding);
         totalAmount = subtotal + taxes - discount;
     }
-}
\ No newline at end of file
+}
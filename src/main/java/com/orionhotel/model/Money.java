@@ -0,0 +1,191 @@
+package com.orionhotel.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+// Fixed-point amount: a long count of the currency's minor units (cents for USD).
+// Instances are for passing amounts around; bill arithmetic in loops uses the static
+// long helpers below, which don't allocate. Rates are long parts per million
+// (12.5% = 125_000) so they are exact too.
+public final class Money implements Serializable, Comparable<Money> {
+    private static final long serialVersionUID = 1L;
+
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+    public static final RoundingMode DEFAULT_ROUNDING = RoundingMode.HALF_UP;
+    public static final long PPM = 1_000_000L;
+
+    private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1_000L, 10_000L };
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency) {
+        return new Money(toMinor(amount, digits(currency), DEFAULT_ROUNDING), currency);
+    }
+
+    public static Money of(double amount, Currency currency) {
+        return new Money(toMinor(amount, digits(currency)), currency);
+    }
+
+    public static Money zero(Currency currency) {
+        return new Money(0, currency);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+
+    public Money applyRate(long ratePpm, RoundingMode rounding) {
+        return new Money(applyRate(minorUnits, ratePpm, rounding), currency);
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, digits(currency));
+    }
+
+    public double toDouble() {
+        return toDouble(minorUnits, digits(currency));
+    }
+
+    private void checkCurrency(Money other) {
+        if (!currency.equals(other.currency))
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Money))
+            return false;
+        Money m = (Money) o;
+        return minorUnits == m.minorUnits && currency.equals(m.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return currency.getCurrencyCode() + " " + toBigDecimal().toPlainString();
+    }
+
+    // --- Allocation-free helpers on raw minor units ---
+
+    public static int digits(Currency currency) {
+        return Math.max(0, currency.getDefaultFractionDigits());
+    }
+
+    // amount * ratePpm / 1,000,000, rounded; exact for any amount below ~9 trillion minor units
+    public static long applyRate(long minorUnits, long ratePpm, RoundingMode rounding) {
+        long product;
+        try {
+            product = Math.multiplyExact(minorUnits, ratePpm);
+        } catch (ArithmeticException overflow) {
+            return BigDecimal.valueOf(minorUnits).multiply(BigDecimal.valueOf(ratePpm))
+                    .divide(BigDecimal.valueOf(PPM), 0, rounding).longValueExact();
+        }
+        return divide(product, PPM, rounding);
+    }
+
+    // Integer division with an explicit rounding mode (divisor > 0)
+    public static long divide(long dividend, long divisor, RoundingMode rounding) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0)
+            return quotient;
+        int sign = dividend < 0 ? -1 : 1;
+        long twice = Math.abs(remainder) * 2; // remainder < divisor, fits for divisor <= 2^62
+        boolean awayFromZero;
+        switch (rounding) {
+            case UP:
+                awayFromZero = true;
+                break;
+            case DOWN:
+                awayFromZero = false;
+                break;
+            case CEILING:
+                awayFromZero = sign > 0;
+                break;
+            case FLOOR:
+                awayFromZero = sign < 0;
+                break;
+            case HALF_UP:
+                awayFromZero = twice >= divisor;
+                break;
+            case HALF_DOWN:
+                awayFromZero = twice > divisor;
+                break;
+            case HALF_EVEN:
+                awayFromZero = twice > divisor || (twice == divisor && (quotient & 1) != 0);
+                break;
+            default:
+                throw new ArithmeticException("Rounding necessary");
+        }
+        return awayFromZero ? quotient + sign : quotient;
+    }
+
+    // Decimal fraction (0.125) to parts per million (125000)
+    public static long ratePpm(double rate) {
+        return Math.round(rate * PPM);
+    }
+
+    public static long toMinor(BigDecimal amount, int digits, RoundingMode rounding) {
+        if (amount == null)
+            return 0;
+        return amount.setScale(digits, rounding).unscaledValue().longValueExact();
+    }
+
+    // Via the shortest decimal representation, so 0.285 becomes 29 cents, not 28
+    public static long toMinor(double amount, int digits) {
+        return toMinor(BigDecimal.valueOf(amount), digits, DEFAULT_ROUNDING);
+    }
+
+    public static BigDecimal toDecimal(long minorUnits, int digits) {
+        return BigDecimal.valueOf(minorUnits, digits);
+    }
+
+    public static double toDouble(long minorUnits, int digits) {
+        return digits < POWERS_OF_TEN.length ? (double) minorUnits / POWERS_OF_TEN[digits]
+                : toDecimal(minorUnits, digits).doubleValue();
+    }
+}
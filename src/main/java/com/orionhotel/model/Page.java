@@ -0,0 +1,50 @@
+package com.orionhotel.model;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+// One page of a keyset-paginated listing. getNextKey() is the key of the last row, to be
+// passed back to fetch the following page; null when this is the last page. The total is an
+// estimate, and only the first page carries it (-1 on later pages).
+public class Page<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_SIZE = 100;
+    public static final int MAX_SIZE = 500;
+
+    private final List<T> items;
+    private final Long nextKey;
+    private final long estimatedTotal;
+
+    public Page(List<T> items, Long nextKey, long estimatedTotal) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextKey = nextKey;
+        this.estimatedTotal = estimatedTotal;
+    }
+
+    public static <T> Page<T> empty() {
+        return new Page<>(Collections.emptyList(), null, 0);
+    }
+
+    // Page size actually used for a requested size
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Long getNextKey() {
+        return nextKey;
+    }
+
+    public boolean hasNext() {
+        return nextKey != null;
+    }
+
+    public long getEstimatedTotal() {
+        return estimatedTotal;
+    }
+}
@@ -4,26 +4,81 @@ import com.orionhotel.controller.*;
 import com.orionhotel.model.Room;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.chart.*;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class AnalyticsUI {
-    private RoomController roomController;
-    private BillingController billingController;
-    private InventoryController inventoryController;
-    private BookingController bookingController;
+    private AnalyticsController controller;
     private VBox rootPane;
+    private TabPane tabPane;
+    private Label updatedLabel;
+    private Button refreshButton;
+
+    private static final DateTimeFormatter UPDATED_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    // A tab whose report is fetched the first time the tab is selected. Reports come from the
+    // controller's snapshot cache, so revisiting Analytics within the TTL costs no queries.
+    private final class ReportTab<T> {
+        final Tab tab;
+        final AsyncLoader loader = new AsyncLoader();
+        final Supplier<AnalyticsController.Snapshot<T>> query;
+        final Function<T, Node> build;
+        boolean requested;
+        LocalDateTime computedAt;
+
+        ReportTab(String title, String loadingMessage, Supplier<AnalyticsController.Snapshot<T>> query,
+                Function<T, Node> build) {
+            this.tab = new Tab(title, AsyncLoader.placeholder(loadingMessage));
+            this.query = query;
+            this.build = build;
+            tab.setUserData(this);
+        }
+
+        void show() {
+            if (requested)
+                return;
+            requested = true;
+            load(query, null);
+        }
+
+        // Keeps the current content on screen until the new snapshot arrives
+        void load(Supplier<AnalyticsController.Snapshot<T>> source, Runnable done) {
+            loader.load(source, snapshot -> {
+                tab.setContent(build.apply(snapshot.data));
+                computedAt = snapshot.computedAt;
+                showUpdated();
+                if (done != null)
+                    done.run();
+            }, e -> {
+                e.printStackTrace();
+                if (computedAt == null)
+                    tab.setContent(new Label("Report could not be loaded."));
+                requested = false;
+                if (done != null)
+                    done.run();
+            });
+        }
+
+        // Forget the loaded state so the next selection fetches again
+        void reset() {
+            loader.cancel();
+            requested = false;
+        }
+    }
 
-    public AnalyticsUI(RoomController rc, BillingController bc, InventoryController ic, BookingController bkc) {
-        this.roomController = rc;
-        this.billingController = bc;
-        this.inventoryController = ic;
-        this.bookingController = bkc;
+    public AnalyticsUI(AnalyticsController controller) {
+        this.controller = controller;
         initializeUI();
     }
 
@@ -32,17 +87,68 @@ public class AnalyticsUI {
         Label headerLabel = new Label("Analytics & Insights");
         headerLabel.setStyle("-fx-font-size: 28px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
 
-        TabPane tabPane = new TabPane();
-        tabPane.getTabs().addAll(createOverviewTab(), createOccupancyTab(), createFinancialTab(), createInventoryTab());
+        updatedLabel = new Label();
+        updatedLabel.setStyle("-fx-text-fill: #7f8c8d;");
+        refreshButton = new Button("Refresh");
+        refreshButton.setOnAction(e -> refresh());
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox header = new HBox(15, headerLabel, spacer, updatedLabel, refreshButton);
+        header.setAlignment(Pos.CENTER_LEFT);
+
+        tabPane = new TabPane();
+        tabPane.getTabs().addAll(
+                new ReportTab<>("Property Overview", "Loading overview...", controller::getOverview,
+                        this::buildOverview).tab,
+                new ReportTab<>("Occupancy Analytics", "Loading occupancy...", controller::getOccupancy,
+                        this::buildOccupancy).tab,
+                new ReportTab<>("Financial Performance", "Loading revenue...", controller::getRevenueTrend,
+                        this::buildFinancial).tab,
+                new ReportTab<>("Inventory Usage", "Loading inventory usage...", controller::getInventoryUsage,
+                        this::buildInventory).tab);
         tabPane.setStyle("-fx-tab-min-width: 150;");
-
-        rootPane = new VBox(20, headerLabel, tabPane);
+        tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
+            if (newTab != null) {
+                reportOf(newTab).show();
+                showUpdated();
+            }
+        });
+        reportOf(tabPane.getSelectionModel().getSelectedItem()).show();
+
+        rootPane = new VBox(20, header, tabPane);
         rootPane.setPadding(new Insets(30));
         rootPane.setStyle("-fx-background-color: #f4f7f6;");
     }
 
-    private Tab createOverviewTab() {
-        Tab tab = new Tab("Property Overview");
+    @SuppressWarnings("unchecked")
+    private static ReportTab<Object> reportOf(Tab tab) {
+        return (ReportTab<Object>) tab.getUserData();
+    }
+
+    // Recomputes the visible report in the background; the other tabs recompute when next opened
+    private void refresh() {
+        ReportTab<Object> current = reportOf(tabPane.getSelectionModel().getSelectedItem());
+        for (Tab tab : tabPane.getTabs()) {
+            ReportTab<Object> report = reportOf(tab);
+            if (report != current)
+                report.reset();
+        }
+        current.requested = true;
+        refreshButton.setDisable(true);
+        current.load(() -> {
+            controller.invalidate();
+            return current.query.get();
+        }, () -> refreshButton.setDisable(false));
+    }
+
+    private void showUpdated() {
+        Tab selected = tabPane.getSelectionModel().getSelectedItem();
+        LocalDateTime at = selected != null ? reportOf(selected).computedAt : null;
+        updatedLabel.setText(at != null ? "Updated " + at.format(UPDATED_FORMAT) : "");
+    }
+
+    private VBox buildOverview(AnalyticsController.Overview o) {
         VBox content = new VBox(30);
         content.setPadding(new Insets(20));
 
@@ -50,16 +156,13 @@ public class AnalyticsUI {
         HBox metricsRow = new HBox(20);
         metricsRow.setAlignment(Pos.CENTER);
 
-        int totalRooms = roomController.getAllRooms().size();
-        int occupied = (int) roomController.getAllRooms().stream()
-                .filter(r -> r.getStatus() == Room.RoomStatus.OCCUPIED).count();
+        int totalRooms = o.totalRooms;
+        int occupied = o.occupied;
         double occupancyRate = totalRooms > 0 ? (double) occupied / totalRooms * 100 : 0;
 
-        double currentMonthRevenue = billingController.getMonthlyRevenue(LocalDate.now().getYear(),
-                LocalDate.now().getMonthValue());
-        int lowStockCount = inventoryController.getLowStockItems().size();
-        int canceledBookings = (int) bookingController.getAllReservations().stream()
-                .filter(r -> r.getStatus() == com.orionhotel.model.Reservation.Status.CANCELLED).count();
+        double currentMonthRevenue = o.monthlyRevenue;
+        int lowStockCount = o.lowStockCount;
+        int canceledBookings = o.cancelledBookings;
 
         metricsRow.getChildren().addAll(
                 createMetricCard("Occupancy Rate", String.format("%.1f%%", occupancyRate), "#3498db"),
@@ -94,17 +197,14 @@ public class AnalyticsUI {
         alertsBox.getChildren().addAll(alertsTitle, summaryText);
 
         content.getChildren().addAll(metricsRow, alertsBox);
-        tab.setContent(content);
-        return tab;
+        return content;
     }
 
-    private Tab createOccupancyTab() {
-        Tab tab = new Tab("Occupancy Analytics");
+    private VBox buildOccupancy(Map<Room.RoomStatus, Long> counts) {
         VBox content = new VBox(20);
         content.setPadding(new Insets(20));
         content.setAlignment(Pos.CENTER);
 
-        Map<Room.RoomStatus, Long> counts = roomController.getRoomStatusCounts();
         PieChart pieChart = new PieChart();
         pieChart.setTitle("Room Status Distribution");
 
@@ -113,12 +213,10 @@ public class AnalyticsUI {
         }
 
         content.getChildren().add(pieChart);
-        tab.setContent(content);
-        return tab;
+        return content;
     }
 
-    private Tab createFinancialTab() {
-        Tab tab = new Tab("Financial Performance");
+    private VBox buildFinancial(Map<YearMonth, Double> revenue) {
         VBox content = new VBox(20);
         content.setPadding(new Insets(20));
 
@@ -132,23 +230,17 @@ public class AnalyticsUI {
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Revenue");
 
-        // Generate data for last 6 months
-        LocalDate now = LocalDate.now();
-        for (int i = 5; i >= 0; i--) {
-            LocalDate monthDate = now.minusMonths(i);
-            String monthName = monthDate.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
-            double revenue = billingController.getMonthlyRevenue(monthDate.getYear(), monthDate.getMonthValue());
-            series.getData().add(new XYChart.Data<>(monthName, revenue));
+        for (Map.Entry<YearMonth, Double> month : revenue.entrySet()) {
+            String monthName = month.getKey().getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
+            series.getData().add(new XYChart.Data<>(monthName, month.getValue()));
         }
 
         barChart.getData().add(series);
         content.getChildren().add(barChart);
-        tab.setContent(content);
-        return tab;
+        return content;
     }
 
-    private Tab createInventoryTab() {
-        Tab tab = new Tab("Inventory Usage");
+    private VBox buildInventory(List<InventoryController.ItemUsage> usageData) {
         VBox content = new VBox(20);
         content.setPadding(new Insets(20));
 
@@ -162,15 +254,13 @@ public class AnalyticsUI {
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Consumption Amount");
 
-        var usageData = inventoryController.getMostUsedItems();
         for (var usage : usageData) {
             series.getData().add(new XYChart.Data<>(usage.itemName, usage.totalConsumed));
         }
 
         usageChart.getData().add(series);
         content.getChildren().add(usageChart);
-        tab.setContent(content);
-        return tab;
+        return content;
     }
 
     private VBox createMetricCard(String title, String value, String color) {
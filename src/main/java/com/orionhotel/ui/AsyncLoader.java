@@ -0,0 +1,107 @@
+package com.orionhotel.ui;
+
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.VBox;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Runs controller queries off the FX application thread and hands the result back on it.
+// One loader per piece of screen that gets refreshed: a new load() supersedes the previous
+// one, whose result is then dropped even if its query already finished, so a slow stale
+// answer never overwrites a newer one.
+//
+//     private final AsyncLoader guestsLoader = new AsyncLoader();
+//     guestsLoader.load(controller::getAllGuests, guests -> data.setAll(guests));
+public final class AsyncLoader {
+
+    private static final int THREADS = 4;
+    private static final int QUEUE_CAPACITY = 256;
+
+    private static final ThreadPoolExecutor EXECUTOR;
+
+    static {
+        AtomicInteger count = new AtomicInteger();
+        EXECUTOR = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread t = new Thread(r, "orion-loader-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private final AtomicInteger generation = new AtomicInteger();
+    private Future<?> pending;
+
+    public <T> void load(Supplier<T> query, Consumer<T> onLoaded) {
+        load(query, onLoaded, null);
+    }
+
+    // Call on the FX thread. onFailed (FX thread) gets the exception; without it the
+    // stack trace is printed.
+    public <T> void load(Supplier<T> query, Consumer<T> onLoaded, Consumer<Throwable> onFailed) {
+        int token = generation.incrementAndGet();
+        // A query already running isn't interrupted: that would break its pooled connection
+        if (pending != null)
+            pending.cancel(false);
+        try {
+            pending = EXECUTOR.submit(() -> {
+                if (token != generation.get())
+                    return;
+                try {
+                    T result = query.get();
+                    Platform.runLater(() -> {
+                        if (token == generation.get())
+                            onLoaded.accept(result);
+                    });
+                } catch (RuntimeException e) {
+                    Platform.runLater(() -> {
+                        if (token == generation.get())
+                            fail(onFailed, e);
+                    });
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending = null;
+            fail(onFailed, e);
+        }
+    }
+
+    // Drops the result of the load in flight, if any
+    public void cancel() {
+        generation.incrementAndGet();
+        if (pending != null)
+            pending.cancel(false);
+        pending = null;
+    }
+
+    private static void fail(Consumer<Throwable> onFailed, Throwable e) {
+        if (onFailed != null) {
+            onFailed.accept(e);
+        } else {
+            e.printStackTrace();
+        }
+    }
+
+    // Spinner with a caption, for a table placeholder or a pane that is still loading
+    public static Node placeholder(String message) {
+        ProgressIndicator spinner = new ProgressIndicator();
+        spinner.setMaxSize(40, 40);
+        Label label = new Label(message);
+        label.setStyle("-fx-text-fill: #7f8c8d;");
+        VBox box = new VBox(10, spinner, label);
+        box.setAlignment(Pos.CENTER);
+        box.setMinHeight(80);
+        return box;
+    }
+}
@@ -2,10 +2,10 @@ package com.orionhotel.ui;
 
 import com.orionhotel.controller.BillingController;
 import com.orionhotel.controller.GuestController;
-import com.orionhotel.controller.SettingsController;
 import com.orionhotel.controller.RoomController;
 import com.orionhotel.model.Bill;
 import com.orionhotel.model.Guest;
+import com.orionhotel.model.Money;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -36,21 +36,13 @@ public class BillingUI {
     private Label grandTotalLabel = new Label("$0.00");
     private Label statusLabel = new Label("UNPAID");
 
-    public BillingUI() {
-        roomController = new RoomController();
-        guestController = new GuestController(roomController);
-        controller = new BillingController(guestController);
+    public BillingUI(BillingController controller, GuestController guestController, RoomController roomController) {
+        this.controller = controller;
+        this.guestController = guestController;
+        this.roomController = roomController;
         initializeUI();
     }
 
-    public void setControllers(SettingsController sc, RoomController rc) {
-        if (controller != null) {
-            this.roomController = rc;
-            controller.setSettingsController(sc);
-            controller.setRoomController(rc);
-        }
-    }
-
     private void initializeUI() {
         // Header
         Label headerLabel = new Label("Billing & Payments");
@@ -98,7 +90,7 @@ public class BillingUI {
 
         TableColumn<Bill.ServiceCharge, Double> amountCol = new TableColumn<>("Amount ($)");
         amountCol.setCellValueFactory(
-                c -> new javafx.beans.property.SimpleDoubleProperty(c.getValue().amount).asObject());
+                c -> new javafx.beans.property.SimpleDoubleProperty(c.getValue().getAmount()).asObject());
         amountCol.setPrefWidth(100);
 
         TableColumn<Bill.ServiceCharge, LocalDate> dateCol = new TableColumn<>("Date");
@@ -274,7 +266,7 @@ public class BillingUI {
                 invoice.setContentText(String.format(
                         "Room Charges: $%.2f\nService Charges: $%.2f\nTaxes: $%.2f\nDiscount: $%.2f\nTotal: $%.2f\nStatus: %s",
                         bill.getRoomCharges(),
-                        bill.getServiceCharges().stream().mapToDouble(sc -> sc.amount).sum(),
+                        Money.toDouble(bill.getServicesTotalMinor(), Money.digits(bill.getCurrency())),
                         bill.getTaxes(),
                         bill.getDiscount(),
                         bill.getTotalAmount(),
@@ -411,7 +403,16 @@ public class BillingUI {
         monthlyCard.setStyle(
                 "-fx-background-color: #f8f9fa; -fx-border-color: #dee2e6; -fx-border-radius: 10; -fx-background-radius: 10;");
 
-        monthlyBox.getChildren().addAll(new Label("Filter by Period:"), selectors, calcMonthlyBtn, monthlyCard);
+        Button rebuildBtn = createBtn("Rebuild Rollup", "#7f8c8d");
+        rebuildBtn.setOnAction(e -> {
+            int rows = controller.rebuildRevenueRollup();
+            new Alert(rows < 0 ? Alert.AlertType.ERROR : Alert.AlertType.INFORMATION,
+                    rows < 0 ? "Revenue rollup rebuild failed." : "Revenue rollup rebuilt: " + rows + " row(s).",
+                    ButtonType.OK).showAndWait();
+        });
+
+        monthlyBox.getChildren().addAll(new Label("Filter by Period:"), selectors, calcMonthlyBtn, monthlyCard,
+                rebuildBtn);
         monthlyTab.setContent(monthlyBox);
 
         // Outstanding Balances
@@ -436,7 +437,16 @@ public class BillingUI {
         outstandingTable.getColumns().setAll(List.of(guestCol, totalCol, statusCol));
         outstandingTable.getItems().setAll(controller.getOutstandingBalances());
 
-        outstandingBox.getChildren().addAll(new Label("Unpaid and Partial Balances:"), outstandingTable);
+        Button verifyBtn = createBtn("Verify Totals", "#7f8c8d");
+        verifyBtn.setOnAction(e -> {
+            BillingController.TotalsCheck check = controller.verifyBillTotals(true);
+            outstandingTable.getItems().setAll(controller.getOutstandingBalances());
+            new Alert(Alert.AlertType.INFORMATION, "Bills checked: " + check.billsChecked + "\nMismatched: "
+                    + check.mismatched + "\nRepaired: " + check.repaired + "\nPaid bills mismatched (not changed): "
+                    + check.paidMismatched, ButtonType.OK).showAndWait();
+        });
+
+        outstandingBox.getChildren().addAll(new Label("Unpaid and Partial Balances:"), outstandingTable, verifyBtn);
         outstandingTab.setContent(outstandingBox);
 
         tabPane.getTabs().addAll(dailyTab, monthlyTab, outstandingTab);
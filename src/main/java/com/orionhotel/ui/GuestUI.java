@@ -3,6 +3,7 @@ package com.orionhotel.ui;
 import com.orionhotel.controller.GuestController;
 import com.orionhotel.controller.RoomController;
 import com.orionhotel.model.Guest;
+import com.orionhotel.model.Page;
 import com.orionhotel.model.Room;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -27,11 +28,13 @@ public class GuestUI {
     private TextField searchField = new TextField();
     private ComboBox<String> statusFilter = new ComboBox<>();
     private VBox rootPane;
+    private final PagedLoader<Guest> guestPages = new PagedLoader<>(table, data, "Loading guests...");
 
-    public GuestUI() {
-        roomController = new RoomController();
-        controller = new GuestController(roomController);
-        bookingController = new com.orionhotel.controller.BookingController(roomController);
+    public GuestUI(GuestController controller, RoomController roomController,
+            com.orionhotel.controller.BookingController bookingController) {
+        this.controller = controller;
+        this.roomController = roomController;
+        this.bookingController = bookingController;
 
         // No sample data - User will input data manually
 
@@ -53,7 +56,7 @@ public class GuestUI {
         searchField.textProperty().addListener((obs, oldVal, newVal) -> applyFilters());
         statusFilter.valueProperty().addListener((obs, oldVal, newVal) -> applyFilters());
 
-        HBox filterBar = new HBox(10, searchField, statusFilter);
+        HBox filterBar = new HBox(10, searchField, statusFilter, guestPages.getCountLabel());
         filterBar.setPadding(new Insets(10));
 
         // Columns
@@ -130,20 +133,18 @@ public class GuestUI {
         return rootPane;
     }
 
+    // Filters run in the query; rows arrive a page at a time as the table is scrolled
     private void refreshTable() {
-        data.setAll(controller.getAllGuests());
-        table.setItems(data);
+        String search = searchField.getText().trim();
+        String status = statusFilter.getValue();
+        Guest.GuestStatus guestStatus = status == null || status.equals("All") ? null
+                : Guest.GuestStatus.valueOf(status);
+        guestPages.reload(after -> controller.getGuestsPage(search, guestStatus, after, Page.DEFAULT_SIZE));
     }
 
+    // Each keystroke supersedes the previous load, so only the latest filter is applied
     private void applyFilters() {
-        String search = searchField.getText().toLowerCase();
-        String status = statusFilter.getValue();
-        data.setAll(controller.getAllGuests().stream().filter(guest -> {
-            boolean matchesSearch = guest.getFullName().toLowerCase().contains(search) ||
-                    guest.getPhoneNumber().contains(search);
-            boolean matchesStatus = status.equals("All") || guest.getStatus().toString().equalsIgnoreCase(status);
-            return matchesSearch && matchesStatus;
-        }).toList());
+        refreshTable();
     }
 
     private void handleAddGuest() {
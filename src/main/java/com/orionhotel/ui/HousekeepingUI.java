@@ -27,20 +27,18 @@ public class HousekeepingUI {
     private VBox rootPane;
     private TableView<HousekeepingTask> taskTable;
     private TableView<MaintenanceRequest> maintTable;
+    private final AsyncLoader tasksLoader = new AsyncLoader();
+    private final AsyncLoader maintenanceLoader = new AsyncLoader();
 
-    public HousekeepingUI() {
-        // Initialize controllers - in a real DI world these would be injected
-        roomController = new RoomController();
-        staffController = new StaffController();
-        controller = new HousekeepingController(roomController, staffController);
+    public HousekeepingUI(HousekeepingController controller, RoomController roomController,
+            StaffController staffController) {
+        this.controller = controller;
+        this.roomController = roomController;
+        this.staffController = staffController;
 
         initializeUI();
     }
 
-    public void setNotificationController(com.orionhotel.controller.NotificationController nc) {
-        controller.setNotificationController(nc);
-    }
-
     public VBox getRootPane() {
         return rootPane;
     }
@@ -147,8 +145,22 @@ public class HousekeepingUI {
     }
 
     private void refreshTables() {
-        taskTable.setItems(FXCollections.observableArrayList(controller.getAllTasks()));
-        maintTable.setItems(FXCollections.observableArrayList(controller.getAllMaintenance()));
+        taskTable.setPlaceholder(AsyncLoader.placeholder("Loading tasks..."));
+        maintTable.setPlaceholder(AsyncLoader.placeholder("Loading requests..."));
+        tasksLoader.load(controller::getAllTasks, tasks -> {
+            taskTable.setPlaceholder(null);
+            taskTable.setItems(FXCollections.observableArrayList(tasks));
+        }, error -> {
+            error.printStackTrace();
+            taskTable.setPlaceholder(new Label("Tasks could not be loaded."));
+        });
+        maintenanceLoader.load(controller::getAllMaintenance, requests -> {
+            maintTable.setPlaceholder(null);
+            maintTable.setItems(FXCollections.observableArrayList(requests));
+        }, error -> {
+            error.printStackTrace();
+            maintTable.setPlaceholder(new Label("Maintenance requests could not be loaded."));
+        });
     }
 
     // --- Dialogs ---
@@ -15,19 +15,17 @@ import javafx.util.converter.IntegerStringConverter;
 
 public class InventoryUI {
 
-    private InventoryController controller = new InventoryController();
+    private InventoryController controller;
     private TableView<InventoryItem> table = new TableView<>();
     private ObservableList<InventoryItem> data = FXCollections.observableArrayList();
     private VBox rootPane;
+    private final AsyncLoader itemsLoader = new AsyncLoader();
 
-    public InventoryUI() {
+    public InventoryUI(InventoryController controller) {
+        this.controller = controller;
         initializeUI();
     }
 
-    public void setNotificationController(com.orionhotel.controller.NotificationController nc) {
-        controller.setNotificationController(nc);
-    }
-
     private void initializeUI() {
         // Sample data removed. User starts fresh or uses SQL seeded data.
 
@@ -162,7 +160,14 @@ public class InventoryUI {
     }
 
     private void refreshTable() {
-        data.setAll(controller.getAllItems());
+        table.setPlaceholder(AsyncLoader.placeholder("Loading inventory..."));
+        itemsLoader.load(controller::getAllItems, items -> {
+            table.setPlaceholder(null);
+            data.setAll(items);
+        }, error -> {
+            error.printStackTrace();
+            table.setPlaceholder(new Label("Inventory could not be loaded."));
+        });
     }
 
     private void handleRestock() {
@@ -177,7 +182,7 @@ public class InventoryUI {
                     int amount = Integer.parseInt(amountStr);
                     if (amount > 0) {
                         controller.restockItem(selected.getItemId(), amount);
-                        table.refresh();
+                        refreshTable();
                     }
                 } catch (NumberFormatException ignored) {
                 }
@@ -197,7 +202,7 @@ public class InventoryUI {
                     int amount = Integer.parseInt(amountStr);
                     if (amount > 0) {
                         if (controller.consumeItem(selected.getItemId(), amount)) {
-                            table.refresh();
+                            refreshTable();
                         } else {
                             Alert alert = new Alert(Alert.AlertType.ERROR, "Not enough stock!");
                             alert.show();
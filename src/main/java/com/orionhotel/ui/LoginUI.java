@@ -1,5 +1,6 @@
 package com.orionhotel.ui;
 
+import com.orionhotel.controller.AppContext;
 import com.orionhotel.controller.StaffController;
 import com.orionhotel.model.Staff;
 import javafx.application.Application;
@@ -15,7 +16,8 @@ import javafx.stage.Stage;
 
 public class LoginUI extends Application {
 
-    private StaffController staffController = new StaffController();
+    private final AppContext context = AppContext.get();
+    private StaffController staffController = context.getStaffController();
 
     @Override
     public void start(Stage primaryStage) {
@@ -78,7 +80,7 @@ public class LoginUI extends Application {
 
             if (staff != null) {
                 try {
-                    new MainMenu(staff).start(primaryStage); // Launch main menu
+                    new MainMenu(staff, context).start(primaryStage); // Launch main menu
                 } catch (Exception ex) {
                     ex.printStackTrace();
                     errorLabel.setText("System Error: Could not load menu.");
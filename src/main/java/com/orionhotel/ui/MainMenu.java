@@ -1,6 +1,7 @@
 package com.orionhotel.ui;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -17,12 +18,14 @@ import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 import com.orionhotel.model.Staff;
 import com.orionhotel.model.Role;
+import com.orionhotel.controller.AppContext;
 import com.orionhotel.controller.RoomController;
 import com.orionhotel.controller.BookingController;
 import com.orionhotel.controller.HousekeepingController;
 import com.orionhotel.controller.StaffController;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 public class MainMenu extends Application {
 
@@ -38,12 +41,26 @@ public class MainMenu extends Application {
     private StaffController staffController;
     private com.orionhotel.controller.BillingController billingController;
     private com.orionhotel.controller.InventoryController inventoryController;
+    private com.orionhotel.controller.DashboardService dashboardService;
+    private final AsyncLoader dashboardLoader = new AsyncLoader();
+    // Reloads the figures of the dashboard on screen; replaced each time one is built
+    private Runnable dashboardRefresh;
+    private final Runnable dashboardListener = () -> Platform.runLater(() -> {
+        if (dashboardRefresh != null && mainLayout.getCenter() == dashboardPane)
+            dashboardRefresh.run();
+    });
+
+    private static final int DASHBOARD_NOTIFICATIONS = 5;
+
+    private AppContext context;
 
     public MainMenu() {
+        this.context = AppContext.get();
     }
 
-    public MainMenu(Staff currentUser) {
+    public MainMenu(Staff currentUser, AppContext context) {
         this.currentUser = currentUser;
+        this.context = context;
     }
 
     @Override
@@ -53,27 +70,31 @@ public class MainMenu extends Application {
         mainLayout = new BorderPane();
         mainLayout.setLeft(createSidebar());
 
-        dashboardPane = createDashboard();
-        mainLayout.setCenter(dashboardPane);
+        showHome();
+        dashboardService.addChangeListener(dashboardListener);
 
         Scene scene = new Scene(mainLayout, 1280, 800);
         primaryStage.setTitle("Orion Hotel Oracle - Dashboard");
         primaryStage.setScene(scene);
+        // However the window goes away (logout, close button), stop listening and loading
+        primaryStage.setOnHidden(e -> {
+            dashboardService.removeChangeListener(dashboardListener);
+            dashboardLoader.cancel();
+        });
         primaryStage.show();
     }
 
     public void initControllers() {
-        notificationController = new com.orionhotel.controller.NotificationController();
-        roomController = new RoomController();
-        settingsController = new com.orionhotel.controller.SettingsController();
-        bookingController = new BookingController(roomController);
-        staffController = new StaffController();
-        housekeepingController = new HousekeepingController(roomController, staffController);
-        inventoryController = new com.orionhotel.controller.InventoryController();
-        billingController = new com.orionhotel.controller.BillingController(
-                new com.orionhotel.controller.GuestController(roomController));
-        billingController.setSettingsController(settingsController);
-        billingController.setRoomController(roomController);
+        notificationController = context.getNotificationController();
+        roomController = context.getRoomController();
+        settingsController = context.getSettingsController();
+        bookingController = context.getBookingController();
+        staffController = context.getStaffController();
+        housekeepingController = context.getHousekeepingController();
+        inventoryController = context.getInventoryController();
+        billingController = context.getBillingController();
+        dashboardService = context.getDashboardService();
+        context.startScheduledJobs();
     }
 
     private VBox createSidebar() {
@@ -154,17 +175,17 @@ public class MainMenu extends Application {
         greeting.getChildren().addAll(welcome, date);
         header.getChildren().add(greeting);
 
-        // Stats Cards
+        // Stats Cards, filled in when the figures arrive
+        Text totalRooms = createStatValue("#3498db");
+        Text availableRooms = createStatValue("#2ecc71");
+        Text pendingTasks = createStatValue("#f1c40f");
+        Text activeBookings = createStatValue("#9b59b6");
         FlowPane statsPane = new FlowPane(20, 20);
         statsPane.getChildren().addAll(
-                createStatCard("Total Rooms", String.valueOf(roomController.getAllRooms().size()), "#3498db"),
-                createStatCard("Available", String.valueOf(roomController.getAvailableRooms().size()), "#2ecc71"),
-                createStatCard("Pending Tasks", String.valueOf(housekeepingController.getAllTasks().stream()
-                        .filter(t -> t.getStatus() != com.orionhotel.model.HousekeepingTask.Startus.COMPLETED).count()),
-                        "#f1c40f"),
-                createStatCard("Active Bookings", String.valueOf(bookingController.getAllReservations().stream()
-                        .filter(r -> r.getStatus() == com.orionhotel.model.Reservation.Status.CONFIRMED).count()),
-                        "#9b59b6"));
+                createStatCard("Total Rooms", totalRooms),
+                createStatCard("Available", availableRooms),
+                createStatCard("Pending Tasks", pendingTasks),
+                createStatCard("Active Bookings", activeBookings));
 
         // Recent Activity and Notifications
         HBox lowerBody = new HBox(30);
@@ -173,13 +194,30 @@ public class MainMenu extends Application {
         Text alertsTitle = new Text("Recent Notifications");
         alertsTitle.setFont(Font.font("Segoe UI", FontWeight.BOLD, 18));
 
-        VBox notificationsList = new VBox(10);
-        var notifs = notificationController.getNotifications(currentUser != null ? currentUser.getRole() : Role.ADMIN);
-        for (int i = 0; i < Math.min(notifs.size(), 5); i++) {
-            notificationsList.getChildren().add(createNotificationItem(notifs.get(i)));
-        }
+        VBox notificationsList = new VBox(10, AsyncLoader.placeholder("Loading notifications..."));
         alertsBox.getChildren().addAll(alertsTitle, notificationsList);
 
+        // One query for every figure; rerun when a change is pushed while the dashboard is showing
+        Role role = currentUser != null ? currentUser.getRole() : Role.ADMIN;
+        dashboardRefresh = () -> dashboardLoader.load(
+                () -> dashboardService.getSummary(role, DASHBOARD_NOTIFICATIONS), summary -> {
+                    totalRooms.setText(String.valueOf(summary.totalRooms));
+                    availableRooms.setText(String.valueOf(summary.availableRooms));
+                    pendingTasks.setText(String.valueOf(summary.pendingTasks));
+                    activeBookings.setText(String.valueOf(summary.activeBookings));
+                    notificationsList.getChildren().clear();
+                    for (com.orionhotel.model.Notification n : summary.notifications) {
+                        notificationsList.getChildren().add(createNotificationItem(n));
+                    }
+                }, error -> {
+                    error.printStackTrace();
+                    for (Text figure : List.of(totalRooms, availableRooms, pendingTasks, activeBookings)) {
+                        figure.setText("\u2013");
+                    }
+                    notificationsList.getChildren().setAll(new Label("Dashboard data could not be loaded."));
+                });
+        dashboardRefresh.run();
+
         VBox quickActions = new VBox(15);
         Text actionsTitle = new Text("Quick Actions");
         actionsTitle.setFont(Font.font("Segoe UI", FontWeight.BOLD, 18));
@@ -206,7 +244,14 @@ public class MainMenu extends Application {
         return sp;
     }
 
-    private VBox createStatCard(String title, String value, String color) {
+    private Text createStatValue(String color) {
+        Text tValue = new Text("\u2026");
+        tValue.setFont(Font.font("Segoe UI", FontWeight.BOLD, 24));
+        tValue.setFill(Color.web(color));
+        return tValue;
+    }
+
+    private VBox createStatCard(String title, Text tValue) {
         VBox card = new VBox(10);
         card.setPadding(new Insets(20));
         card.setPrefSize(200, 120);
@@ -217,10 +262,6 @@ public class MainMenu extends Application {
         tLabel.setFont(Font.font("Segoe UI", 14));
         tLabel.setFill(Color.GRAY);
 
-        Text tValue = new Text(value);
-        tValue.setFont(Font.font("Segoe UI", FontWeight.BOLD, 24));
-        tValue.setFill(Color.web(color));
-
         card.getChildren().addAll(tLabel, tValue);
         return card;
     }
@@ -241,48 +282,43 @@ public class MainMenu extends Application {
     }
 
     private void showHome() {
-        mainLayout.setCenter(createDashboard());
+        dashboardPane = createDashboard();
+        mainLayout.setCenter(dashboardPane);
     }
 
     private void showGuestManagement() {
-        mainLayout.setCenter(new GuestUI().getRootPane());
+        mainLayout.setCenter(
+                new GuestUI(context.getGuestController(), roomController, bookingController).getRootPane());
     }
 
     private void showInventoryManagement() {
-        InventoryUI ui = new InventoryUI();
-        ui.setNotificationController(notificationController);
-        mainLayout.setCenter(ui.getRootPane());
+        mainLayout.setCenter(new InventoryUI(inventoryController).getRootPane());
     }
 
     private void showRoomDashboard() {
-        mainLayout.setCenter(new RoomDashboard().getRootPane());
+        mainLayout.setCenter(new RoomDashboard(roomController).getRootPane());
     }
 
     private void showReservations() {
-        ReservationUI ui = new ReservationUI();
-        ui.setNotificationController(notificationController);
-        mainLayout.setCenter(ui.getRootPane());
+        mainLayout.setCenter(new ReservationUI(bookingController, roomController).getRootPane());
     }
 
     private void showBilling() {
-        BillingUI ui = new BillingUI();
-        ui.setControllers(settingsController, roomController);
-        mainLayout.setCenter(ui.getRootPane());
+        mainLayout.setCenter(
+                new BillingUI(billingController, context.getGuestController(), roomController).getRootPane());
     }
 
     private void showStaffManagement() {
-        mainLayout.setCenter(new StaffUI().getRootPane());
+        mainLayout.setCenter(new StaffUI(staffController).getRootPane());
     }
 
     private void showHousekeeping() {
-        HousekeepingUI ui = new HousekeepingUI();
-        ui.setNotificationController(notificationController);
-        mainLayout.setCenter(ui.getRootPane());
+        mainLayout.setCenter(
+                new HousekeepingUI(housekeepingController, roomController, staffController).getRootPane());
     }
 
     private void showAnalytics() {
-        mainLayout.setCenter(new AnalyticsUI(roomController, billingController, inventoryController, bookingController)
-                .getRootPane());
+        mainLayout.setCenter(new AnalyticsUI(context.getAnalyticsController()).getRootPane());
     }
 
     private void showNotifications() {
@@ -290,7 +326,7 @@ public class MainMenu extends Application {
     }
 
     private void showSettings() {
-        mainLayout.setCenter(new SettingsUI(settingsController).getRootPane());
+        mainLayout.setCenter(new SettingsUI(settingsController, context.getImportController()).getRootPane());
     }
 
     public static void main(String[] args) {
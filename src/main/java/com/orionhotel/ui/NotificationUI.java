@@ -2,7 +2,9 @@ package com.orionhotel.ui;
 
 import com.orionhotel.controller.NotificationController;
 import com.orionhotel.model.Notification;
+import com.orionhotel.model.Page;
 import com.orionhotel.model.Role;
+import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -28,6 +30,8 @@ public class NotificationUI {
         layout.setPadding(new Insets(10));
 
         ListView<Notification> list = new ListView<>();
+        PagedLoader<Notification> pages = new PagedLoader<>(list, FXCollections.observableArrayList(),
+                "Loading notifications...");
         list.setCellFactory(param -> new ListCell<Notification>() {
             @Override
             protected void updateItem(Notification item, boolean empty) {
@@ -46,36 +50,38 @@ public class NotificationUI {
             }
         });
 
-        refreshList(list);
+        refreshList(pages);
 
         Button markReadBtn = new Button("Mark as Read");
         markReadBtn.setOnAction(e -> {
             Notification n = list.getSelectionModel().getSelectedItem();
             if (n != null) {
                 controller.markAsRead(n.getId());
-                refreshList(list);
+                refreshList(pages);
             }
         });
 
         Button markAllBtn = new Button("Mark All Read");
         markAllBtn.setOnAction(e -> {
             controller.markAllAsRead(userRole);
-            refreshList(list);
+            refreshList(pages);
         });
 
         Button clearBtn = new Button("Clear All");
         clearBtn.setOnAction(e -> {
             controller.clearAll(userRole);
-            refreshList(list);
+            refreshList(pages);
         });
 
-        layout.getChildren().addAll(new Label("Your Notifications:"), list, markReadBtn, markAllBtn, clearBtn);
+        layout.getChildren().addAll(new Label("Your Notifications:"), list, pages.getCountLabel(), markReadBtn,
+                markAllBtn, clearBtn);
         Scene scene = new Scene(layout, 400, 500);
         stage.setScene(scene);
         stage.show();
     }
 
-    private void refreshList(ListView<Notification> list) {
-        list.getItems().setAll(controller.getNotifications(userRole));
+    // Newest first, further pages fetched as the list is scrolled
+    private void refreshList(PagedLoader<Notification> pages) {
+        pages.reload(before -> controller.getNotificationsPage(userRole, before, Page.DEFAULT_SIZE));
     }
 }
@@ -0,0 +1,136 @@
+package com.orionhotel.ui;
+
+import com.orionhotel.model.Page;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.Control;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+import java.util.function.Function;
+
+// Fills a TableView or ListView one keyset page at a time: the first page on reload(), the
+// next one whenever the user scrolls near the bottom. Only the rows scrolled past are held,
+// and every fetch runs on an AsyncLoader, so a reload supersedes a page still in flight.
+//
+//     guestPages.reload(after -> controller.getGuestsPage(search, status, after, Page.DEFAULT_SIZE));
+public final class PagedLoader<T> {
+
+    // Fraction of the scroll range past which the next page is fetched
+    private static final double PREFETCH_AT = 0.9;
+
+    private final Control view;
+    private final ObservableList<T> items;
+    private final String loadingMessage;
+    private final AsyncLoader loader = new AsyncLoader();
+    private final Label countLabel = new Label();
+    private ScrollBar scrollBar;
+
+    private Function<Long, Page<T>> source;
+    private Long nextKey;
+    private boolean loading;
+    private long estimatedTotal;
+
+    public PagedLoader(TableView<T> table, ObservableList<T> items, String loadingMessage) {
+        this((Control) table, items, loadingMessage);
+        table.setItems(items);
+    }
+
+    public PagedLoader(ListView<T> list, ObservableList<T> items, String loadingMessage) {
+        this((Control) list, items, loadingMessage);
+        list.setItems(items);
+    }
+
+    private PagedLoader(Control view, ObservableList<T> items, String loadingMessage) {
+        this.view = view;
+        this.items = items;
+        this.loadingMessage = loadingMessage;
+        countLabel.setStyle("-fx-text-fill: #7f8c8d;");
+        // The scroll bar only exists once the skin has built the virtual flow
+        view.skinProperty().addListener((obs, oldSkin, newSkin) -> attachScrollBar());
+        attachScrollBar();
+    }
+
+    // "Showing n of about m"; place it wherever the screen shows status text
+    public Label getCountLabel() {
+        return countLabel;
+    }
+
+    // Starts over from the first page of the given source (the argument is the previous
+    // page's next key, null for the first page)
+    public void reload(Function<Long, Page<T>> source) {
+        this.source = source;
+        reload();
+    }
+
+    public void reload() {
+        if (source == null)
+            return;
+        Function<Long, Page<T>> from = source;
+        nextKey = null;
+        loading = true;
+        setPlaceholder(AsyncLoader.placeholder(loadingMessage));
+        loader.load(() -> from.apply(null), page -> {
+            setPlaceholder(null);
+            items.setAll(page.getItems());
+            estimatedTotal = page.getEstimatedTotal();
+            accept(page);
+        }, this::failed);
+    }
+
+    private void loadMore() {
+        if (loading || nextKey == null)
+            return;
+        Function<Long, Page<T>> from = source;
+        Long after = nextKey;
+        loading = true;
+        loader.load(() -> from.apply(after), page -> {
+            items.addAll(page.getItems());
+            accept(page);
+        }, this::failed);
+    }
+
+    private void accept(Page<T> page) {
+        nextKey = page.getNextKey();
+        loading = false;
+        long total = Math.max(estimatedTotal, items.size());
+        countLabel.setText(nextKey == null ? "Showing " + items.size()
+                : "Showing " + items.size() + " of about " + total);
+    }
+
+    private void failed(Throwable e) {
+        e.printStackTrace();
+        loading = false;
+        setPlaceholder(new Label("Could not load the list."));
+    }
+
+    private void attachScrollBar() {
+        if (scrollBar != null)
+            return;
+        for (Node node : view.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                scrollBar = (ScrollBar) node;
+                scrollBar.valueProperty().addListener((obs, oldValue, value) -> {
+                    if (value.doubleValue() >= scrollBar.getMax() * PREFETCH_AT)
+                        loadMore();
+                });
+                // Rows that no longer fill the view can't be scrolled to fetch more
+                scrollBar.visibleProperty().addListener((obs, was, visible) -> {
+                    if (!visible)
+                        loadMore();
+                });
+                return;
+            }
+        }
+    }
+
+    private void setPlaceholder(Node placeholder) {
+        if (view instanceof TableView) {
+            ((TableView<?>) view).setPlaceholder(placeholder);
+        } else if (view instanceof ListView) {
+            ((ListView<?>) view).setPlaceholder(placeholder);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.orionhotel.ui;
 
 import com.orionhotel.controller.BookingController;
 import com.orionhotel.controller.RoomController;
+import com.orionhotel.model.AvailabilityMatrix;
+import com.orionhotel.model.Page;
 import com.orionhotel.model.Reservation;
 import com.orionhotel.model.Room;
 import javafx.collections.FXCollections;
@@ -14,6 +16,7 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 public class ReservationUI {
@@ -25,16 +28,18 @@ public class ReservationUI {
     private TextField searchField = new TextField();
     private ComboBox<String> statusFilter = new ComboBox<>();
     private VBox rootPane;
+    private final PagedLoader<Reservation> reservationPages = new PagedLoader<>(table, data,
+            "Loading reservations...");
 
-    public ReservationUI() {
-        roomController = new RoomController();
-        controller = new BookingController(roomController);
+    public ReservationUI(BookingController controller, RoomController roomController) {
+        this.controller = controller;
+        this.roomController = roomController;
 
         // Initialize sample rooms removed. User must add rooms via SQL initialization
         // or UI.
 
         // Sample reservations if none exist
-        if (controller.getAllReservations().isEmpty()) {
+        if (controller.getReservationsPage(null, null, null, 1).getItems().isEmpty()) {
             controller.addReservation(new Reservation(1, "Alice Johnson", "555-1234", "alice@example.com", "Single",
                     LocalDate.now().plusDays(1), LocalDate.now().plusDays(3), 1));
             controller.addReservation(new Reservation(2, "Bob Smith", "555-5678", "bob@example.com", "Double",
@@ -44,10 +49,6 @@ public class ReservationUI {
         initializeUI();
     }
 
-    public void setNotificationController(com.orionhotel.controller.NotificationController nc) {
-        controller.setNotificationController(nc);
-    }
-
     private void initializeUI() {
         refreshTable();
 
@@ -61,7 +62,7 @@ public class ReservationUI {
         searchField.textProperty().addListener((obs, oldVal, newVal) -> applyFilters());
         statusFilter.valueProperty().addListener((obs, oldVal, newVal) -> applyFilters());
 
-        HBox filterBar = new HBox(10, searchField, statusFilter);
+        HBox filterBar = new HBox(10, searchField, statusFilter, reservationPages.getCountLabel());
         filterBar.setPadding(new Insets(10));
 
         // Columns
@@ -129,11 +130,14 @@ public class ReservationUI {
         Button reportsBtn = new Button("Reports");
         reportsBtn.setOnAction(e -> showReports());
 
+        Button availabilityBtn = new Button("Availability");
+        availabilityBtn.setOnAction(e -> showAvailability());
+
         Button refreshBtn = new Button("Refresh");
         refreshBtn.setOnAction(e -> refreshTable());
 
         HBox buttonBar = new HBox(10, createBtn, confirmBtn, assignBtn, modifyBtn, cancelBtn, checkInBtn, reportsBtn,
-                refreshBtn);
+                availabilityBtn, refreshBtn);
         buttonBar.setPadding(new Insets(10));
 
         rootPane = new VBox(10, filterBar, table, buttonBar);
@@ -144,19 +148,17 @@ public class ReservationUI {
         return rootPane;
     }
 
+    // Filters run in the query; rows arrive a page at a time as the table is scrolled
     private void refreshTable() {
-        data.setAll(controller.getAllReservations());
-        table.setItems(data);
+        String search = searchField.getText().trim();
+        String status = statusFilter.getValue();
+        Reservation.Status resStatus = status == null || status.equals("All") ? null
+                : Reservation.Status.valueOf(status);
+        reservationPages.reload(after -> controller.getReservationsPage(search, resStatus, after, Page.DEFAULT_SIZE));
     }
 
     private void applyFilters() {
-        String search = searchField.getText().toLowerCase();
-        String status = statusFilter.getValue();
-        data.setAll(controller.getAllReservations().stream().filter(res -> {
-            boolean matchesSearch = res.getGuestName().toLowerCase().contains(search);
-            boolean matchesStatus = status.equals("All") || res.getStatus().toString().equalsIgnoreCase(status);
-            return matchesSearch && matchesStatus;
-        }).toList());
+        refreshTable();
     }
 
     private void handleCreateReservation() {
@@ -398,6 +400,76 @@ public class ReservationUI {
         dialog.showAndWait();
     }
 
+    // Heatmap of free rooms per type per night (green = all free, red = sold out)
+    private void showAvailability() {
+        DatePicker fromPicker = new DatePicker(LocalDate.now());
+        Spinner<Integer> daysSpinner = new Spinner<>(1, 365, 90, 7);
+        daysSpinner.setEditable(true);
+        Button showBtn = new Button("Show");
+
+        ScrollPane heatmapPane = new ScrollPane();
+        heatmapPane.setPrefViewportWidth(900);
+        heatmapPane.setPrefViewportHeight(220);
+
+        Runnable render = () -> {
+            LocalDate from = fromPicker.getValue() != null ? fromPicker.getValue() : LocalDate.now();
+            try {
+                AvailabilityMatrix matrix = controller.getAvailabilityMatrix(from, from.plusDays(daysSpinner.getValue()));
+                heatmapPane.setContent(buildHeatmap(matrix));
+            } catch (IllegalStateException ex) {
+                ex.printStackTrace();
+                heatmapPane.setContent(new Label("Availability could not be loaded."));
+            }
+        };
+        showBtn.setOnAction(e -> render.run());
+        render.run();
+
+        HBox controls = new HBox(10, new Label("From:"), fromPicker, new Label("Nights:"), daysSpinner, showBtn);
+        VBox content = new VBox(10, controls, heatmapPane);
+        content.setPadding(new Insets(10));
+
+        Alert dialog = new Alert(Alert.AlertType.INFORMATION);
+        dialog.setTitle("Room Availability");
+        dialog.setHeaderText(null);
+        dialog.getDialogPane().setContent(content);
+        dialog.setResizable(true);
+        dialog.showAndWait();
+    }
+
+    private GridPane buildHeatmap(AvailabilityMatrix matrix) {
+        DateTimeFormatter dayFormat = DateTimeFormatter.ofPattern("EEE\nd MMM");
+        GridPane grid = new GridPane();
+        grid.setHgap(1);
+        grid.setVgap(1);
+
+        for (int n = 0; n < matrix.getNights(); n++) {
+            Label day = new Label(matrix.getDate(n).format(dayFormat));
+            day.setStyle("-fx-font-size: 10px; -fx-alignment: center;");
+            day.setMinWidth(42);
+            grid.add(day, n + 1, 0);
+        }
+
+        for (int t = 0; t < matrix.getTypeCount(); t++) {
+            int total = matrix.getTotalRooms(t);
+            Label type = new Label(matrix.getRoomType(t) + " (" + total + ")");
+            type.setStyle("-fx-font-weight: bold; -fx-padding: 0 8 0 0;");
+            grid.add(type, 0, t + 1);
+
+            for (int n = 0; n < matrix.getNights(); n++) {
+                int free = matrix.getFree(t, n);
+                double ratio = total > 0 ? (double) free / total : 0;
+                Label cell = new Label(String.valueOf(free));
+                cell.setMinSize(42, 28);
+                cell.setStyle(String.format("-fx-alignment: center; -fx-background-color: hsb(%d, 55%%, 90%%);",
+                        Math.round(ratio * 120)));
+                cell.setTooltip(new Tooltip(matrix.getRoomType(t) + " on " + matrix.getDate(n) + ": " + free + " of "
+                        + total + " free"));
+                grid.add(cell, n + 1, t + 1);
+            }
+        }
+        return grid;
+    }
+
     private void showAlert(String msg) {
         Alert alert = new Alert(Alert.AlertType.ERROR, msg, ButtonType.OK);
         alert.showAndWait();
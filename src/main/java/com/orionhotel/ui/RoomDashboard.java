@@ -13,13 +13,15 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 public class RoomDashboard {
-    private RoomController roomController = new RoomController();
+    private RoomController roomController;
     private VBox rootPane;
     private TilePane roomGrid;
     private ComboBox<String> statusFilter;
     private ComboBox<String> typeFilter;
+    private final AsyncLoader roomsLoader = new AsyncLoader();
 
-    public RoomDashboard() {
+    public RoomDashboard(RoomController roomController) {
+        this.roomController = roomController;
         initializeUI();
     }
 
@@ -86,9 +88,15 @@ public class RoomDashboard {
     }
 
     private void refreshRoomList() {
-        roomGrid.getChildren().clear();
-        List<Room> allRooms = roomController.getAllRooms();
+        roomGrid.getChildren().setAll(AsyncLoader.placeholder("Loading rooms..."));
+        roomsLoader.load(roomController::getAllRooms, this::showRooms, error -> {
+            error.printStackTrace();
+            roomGrid.getChildren().setAll(new Label("Rooms could not be loaded."));
+        });
+    }
 
+    private void showRooms(List<Room> allRooms) {
+        roomGrid.getChildren().clear();
         String statusF = statusFilter.getValue();
         String typeF = typeFilter.getValue();
 
@@ -1,7 +1,11 @@
 package com.orionhotel.ui;
 
+import com.orionhotel.controller.ImportController;
 import com.orionhotel.controller.SettingsController;
 import com.orionhotel.model.SystemSettings;
+import com.orionhotel.utils.BulkImporter;
+import com.orionhotel.utils.DataExporter;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
@@ -13,11 +17,13 @@ import java.io.File;
 public class SettingsUI {
 
     private SettingsController controller;
+    private ImportController importController;
     private BorderPane rootPane;
     private VBox contentArea;
 
-    public SettingsUI(SettingsController controller) {
+    public SettingsUI(SettingsController controller, ImportController importController) {
         this.controller = controller;
+        this.importController = importController;
         initializeUI();
     }
 
@@ -303,7 +309,149 @@ public class SettingsUI {
 
         autoBackupSection.getChildren().addAll(autoTitle, autoDesc, recentTitle, recentBackups);
 
-        contentArea.getChildren().addAll(header, backupSection, restoreSection, autoBackupSection);
+        // Data export
+        VBox exportSection = new VBox(10);
+        exportSection.setPadding(new Insets(10));
+        exportSection.setStyle("-fx-border-color: #ddd; -fx-border-width: 1; -fx-background-color: #f9f9f9;");
+
+        Label exportTitle = new Label("Export Data");
+        exportTitle.setStyle("-fx-font-weight: bold;");
+
+        Label exportDesc = new Label("Guests, reservations, bills, service charges, inventory logs, housekeeping tasks and "
+                + "maintenance requests, one file each. Leave the dates empty to export everything.");
+        exportDesc.setWrapText(true);
+
+        ComboBox<DataExporter.Format> formatBox = new ComboBox<>();
+        formatBox.getItems().addAll(DataExporter.Format.values());
+        formatBox.setValue(DataExporter.Format.CSV);
+        CheckBox gzipBox = new CheckBox("Compress (gzip)");
+        DatePicker exportFrom = new DatePicker();
+        exportFrom.setPromptText("From");
+        DatePicker exportTo = new DatePicker();
+        exportTo.setPromptText("Until (exclusive)");
+
+        Button exportBtn = new Button("Export...");
+        Label exportStatusLabel = new Label();
+        AsyncLoader exportLoader = new AsyncLoader();
+
+        exportBtn.setOnAction(e -> {
+            DirectoryChooser chooser = new DirectoryChooser();
+            chooser.setTitle("Select Export Location");
+            File result = chooser.showDialog(rootPane.getScene().getWindow());
+            if (result == null)
+                return;
+            exportBtn.setDisable(true);
+            exportStatusLabel.setStyle("");
+            exportStatusLabel.setText("Exporting...");
+            DataExporter.ProgressListener progress = (dataset, rows, total) -> Platform.runLater(() ->
+                    exportStatusLabel.setText("Exporting " + dataset.getFileName() + ": " + rows
+                            + (total > 0 ? " of about " + total : "") + " rows"));
+            exportLoader.load(() -> controller.exportData(result.getAbsolutePath(), formatBox.getValue(),
+                    gzipBox.isSelected(), exportFrom.getValue(), exportTo.getValue(), progress), results -> {
+                exportBtn.setDisable(false);
+                if (results != null) {
+                    long rows = results.stream().mapToLong(r -> r.rows).sum();
+                    exportStatusLabel.setText("✅ Exported " + rows + " rows to " + results.get(0).path.getParent());
+                    exportStatusLabel.setStyle("-fx-text-fill: green;");
+                } else {
+                    exportStatusLabel.setText("❌ Export failed. Please try again.");
+                    exportStatusLabel.setStyle("-fx-text-fill: red;");
+                }
+            }, error -> {
+                error.printStackTrace();
+                exportBtn.setDisable(false);
+                exportStatusLabel.setText("❌ Export failed. Please try again.");
+                exportStatusLabel.setStyle("-fx-text-fill: red;");
+            });
+        });
+
+        exportSection.getChildren().addAll(exportTitle, exportDesc, new HBox(10, formatBox, gzipBox),
+                new HBox(10, exportFrom, exportTo), exportBtn, exportStatusLabel);
+
+        // Data import
+        VBox importSection = new VBox(10);
+        importSection.setPadding(new Insets(10));
+        importSection.setStyle("-fx-border-color: #ddd; -fx-border-width: 1; -fx-background-color: #f9f9f9;");
+
+        Label importTitle = new Label("Import Data");
+        importTitle.setStyle("-fx-font-weight: bold;");
+
+        ComboBox<BulkImporter.Target> targetBox = new ComboBox<>();
+        targetBox.getItems().addAll(BulkImporter.Target.values());
+        targetBox.setValue(BulkImporter.Target.ROOMS);
+
+        Label importDesc = new Label();
+        importDesc.setWrapText(true);
+        Runnable describeTarget = () -> importDesc.setText("CSV file with a header row. Required columns: "
+                + String.join(", ", targetBox.getValue().getRequiredColumns())
+                + ". Rejected rows are saved next to the file as <file>.rejected.csv.");
+        describeTarget.run();
+        targetBox.setOnAction(e -> describeTarget.run());
+
+        Button importBtn = new Button("Import CSV...");
+        Label importStatusLabel = new Label();
+        importStatusLabel.setWrapText(true);
+        AsyncLoader importLoader = new AsyncLoader();
+
+        importBtn.setOnAction(e -> {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Select CSV File");
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv", "*.csv.gz"));
+            File selectedFile = fileChooser.showOpenDialog(rootPane.getScene().getWindow());
+            if (selectedFile == null)
+                return;
+            BulkImporter.Target target = targetBox.getValue();
+            importBtn.setDisable(true);
+            importStatusLabel.setStyle("");
+            importStatusLabel.setText("Importing...");
+            BulkImporter.ProgressListener progress = (t, read, inserted, rejected) -> Platform.runLater(() ->
+                    importStatusLabel.setText("Importing: " + read + " rows read, " + inserted + " imported, "
+                            + rejected + " rejected"));
+            importLoader.load(() -> importController.importFile(target, selectedFile.getAbsolutePath(), progress),
+                    result -> {
+                        importBtn.setDisable(false);
+                        String summary = result.inserted + " of " + result.rowsRead + " rows imported"
+                                + (result.rejectReport != null ? "; rejected rows: " + result.rejectReport : "");
+                        if (result.error != null) {
+                            importStatusLabel.setText("❌ Import stopped: " + result.error + " (" + summary + ")");
+                            importStatusLabel.setStyle("-fx-text-fill: red;");
+                        } else {
+                            importStatusLabel.setText((result.rejected > 0 ? "⚠️ " : "✅ ") + summary);
+                            importStatusLabel.setStyle(result.rejected > 0 ? "-fx-text-fill: #e67e22;"
+                                    : "-fx-text-fill: green;");
+                        }
+                    });
+        });
+
+        importSection.getChildren().addAll(importTitle, targetBox, importDesc, importBtn, importStatusLabel);
+
+        // Database index health
+        VBox indexSection = new VBox(10);
+        indexSection.setPadding(new Insets(10));
+        indexSection.setStyle("-fx-border-color: #ddd; -fx-border-width: 1; -fx-background-color: #f9f9f9;");
+
+        Label indexTitle = new Label("Database Indexes");
+        indexTitle.setStyle("-fx-font-weight: bold;");
+
+        TextArea indexReport = new TextArea();
+        indexReport.setEditable(false);
+        indexReport.setPrefRowCount(10);
+        indexReport.setStyle("-fx-font-family: monospace;");
+
+        Button indexReportBtn = new Button("Show Index Usage");
+        indexReportBtn.setOnAction(e -> indexReport.setText(String.join("\n", controller.getIndexUsageReport())));
+
+        Button createIndexesBtn = new Button("Create Missing Indexes");
+        createIndexesBtn.setOnAction(e -> {
+            int created = controller.rebuildMissingIndexes();
+            indexReport.setText((created < 0 ? "Index creation failed." : "Created " + created + " index(es).")
+                    + "\n\n" + String.join("\n", controller.getIndexUsageReport()));
+        });
+
+        indexSection.getChildren().addAll(indexTitle, new HBox(10, indexReportBtn, createIndexesBtn), indexReport);
+
+        contentArea.getChildren().addAll(header, backupSection, restoreSection, autoBackupSection, importSection,
+                exportSection, indexSection);
     }
 
     private void showAlert(String msg) {
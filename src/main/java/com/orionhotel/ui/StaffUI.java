@@ -15,12 +15,13 @@ import javafx.scene.layout.VBox;
 
 public class StaffUI {
 
-    private StaffController controller = new StaffController();
+    private StaffController controller;
     private TableView<Staff> table = new TableView<>();
     private ObservableList<Staff> data = FXCollections.observableArrayList();
     private VBox rootPane;
 
-    public StaffUI() {
+    public StaffUI(StaffController controller) {
+        this.controller = controller;
         initializeUI();
     }
 
@@ -0,0 +1,580 @@
+package com.orionhotel.utils;
+
+import com.orionhotel.database.DatabaseConnection;
+import com.orionhotel.database.Tx;
+import com.orionhotel.model.Guest;
+import com.orionhotel.model.Reservation;
+import com.orionhotel.model.Room;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Loads rooms, guests, inventory items or reservations from a CSV file with a header row
+// (columns in any order, matched by name, ignoring case; .csv.gz is read too).
+//
+// One thread cuts the file into records; chunks of records are split and validated on a
+// small pool of parser threads, and the chunks are inserted in file order, each as one
+// JDBC batch in its own transaction. If a chunk's batch breaks a constraint the validation
+// didn't foresee (SQLState class 23), its rows are retried one by one so only the offending
+// rows are lost; any other database error ends the import.
+// Rejected rows go to <file>.rejected.csv next to the input: the row number, the reason and
+// the original fields (the raw text for a row that isn't valid CSV), so they can be fixed and
+// imported again. A failure part way (unreadable file, database gone) ends the import; the
+// Result then carries the error along with what was imported and rejected up to that point.
+//
+// The importer writes the tables directly; callers must drop any caches of them afterwards.
+public class BulkImporter {
+
+    public enum Target {
+        ROOMS("INSERT INTO rooms (room_number, type, price, status) VALUES (?, ?, ?, ?)",
+                new int[] { Types.INTEGER, Types.VARCHAR, Types.DECIMAL, Types.VARCHAR },
+                "room_number", "type", "price"),
+        GUESTS("INSERT INTO guests (full_name, phone, email, id_number, address, status) VALUES (?, ?, ?, ?, ?, ?)",
+                new int[] { Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR },
+                "full_name"),
+        INVENTORY("INSERT INTO inventory (name, category, quantity, min_level, supplier) VALUES (?, ?, ?, ?, ?)",
+                new int[] { Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.INTEGER, Types.VARCHAR },
+                "name"),
+        RESERVATIONS("INSERT INTO reservations (guest_name, phone, email, room_type, room_number, check_in, "
+                + "check_out, num_guests, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                new int[] { Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.DATE,
+                        Types.DATE, Types.INTEGER, Types.VARCHAR },
+                "guest_name", "room_type", "check_in", "check_out");
+
+        private final String insertSql;
+        private final int[] types;
+        private final List<String> requiredColumns;
+
+        Target(String insertSql, int[] types, String... requiredColumns) {
+            this.insertSql = insertSql;
+            this.types = types;
+            this.requiredColumns = List.of(requiredColumns);
+        }
+
+        public List<String> getRequiredColumns() {
+            return requiredColumns;
+        }
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(Target target, long rowsRead, long inserted, long rejected);
+    }
+
+    public static class Result {
+        public final Target target;
+        public final long rowsRead;
+        public final long inserted;
+        public final long rejected;
+        public final Path rejectReport; // null when nothing was rejected
+        public final long millis;
+        public final String error; // null when the file was processed to the end
+
+        public Result(Target target, long rowsRead, long inserted, long rejected, Path rejectReport, long millis,
+                String error) {
+            this.target = target;
+            this.rowsRead = rowsRead;
+            this.inserted = inserted;
+            this.rejected = rejected;
+            this.rejectReport = rejectReport;
+            this.millis = millis;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            return target + ": " + inserted + " of " + rowsRead + " rows imported, " + rejected + " rejected in "
+                    + millis + " ms" + (error != null ? " (stopped: " + error + ")" : "");
+        }
+    }
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private static final int PARSER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private final int chunkSize;
+    private ProgressListener progressListener;
+
+    public BulkImporter(int chunkSize) {
+        this.chunkSize = chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+    }
+
+    // Called on the importing thread after each chunk
+    public void setProgressListener(ProgressListener listener) {
+        this.progressListener = listener;
+    }
+
+    // Never throws; a failure is reported in Result.error
+    public Result importFile(Target target, Path csv) {
+        long start = System.nanoTime();
+        Run run = new Run(target, csv.resolveSibling(csv.getFileName() + ".rejected.csv"));
+        String error;
+        try {
+            error = load(run, csv);
+        } catch (IOException | SQLException | RuntimeException e) {
+            e.printStackTrace();
+            error = e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+        try {
+            run.closeReport();
+        } catch (IOException e) {
+            e.printStackTrace();
+            if (error == null)
+                error = "Could not write " + run.reportPath.getFileName() + ": " + e.getMessage();
+        }
+        return run.result(start, error);
+    }
+
+    // Null when the whole file was read, otherwise why the import didn't start
+    private String load(Run run, Path csv) throws IOException, SQLException {
+        Target target = run.target;
+        Files.deleteIfExists(run.reportPath);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService parsers = Executors.newFixedThreadPool(PARSER_THREADS, r -> {
+            Thread t = new Thread(r, "orion-import-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try (BufferedReader in = FileHandler.newReader(csv)) {
+            String headerRecord = FileHandler.readCsvRecord(in);
+            if (headerRecord == null)
+                return "The file is empty";
+            try {
+                // A byte order mark (Excel's "CSV UTF-8") would otherwise stick to the first column name
+                run.readHeader(FileHandler.splitCsvRecord(headerRecord.replace("\uFEFF", "")));
+            } catch (IllegalArgumentException e) {
+                return "Header row: " + e.getMessage();
+            }
+            List<String> missing = new ArrayList<>();
+            for (String column : target.requiredColumns) {
+                if (!run.columns.containsKey(column))
+                    missing.add(column);
+            }
+            if (!missing.isEmpty())
+                return "Missing column(s): " + String.join(", ", missing);
+            run.loadExisting();
+
+            // Parsing runs ahead of the inserts by a bounded number of chunks
+            Deque<Future<Chunk>> pending = new ArrayDeque<>();
+            List<String> records = new ArrayList<>(chunkSize);
+            long firstRow = 1;
+            String record;
+            while ((record = FileHandler.readCsvRecord(in)) != null) {
+                if (record.trim().isEmpty())
+                    continue;
+                records.add(record);
+                if (records.size() == chunkSize) {
+                    pending.add(parsers.submit(run.parser(firstRow, records)));
+                    firstRow += records.size();
+                    records = new ArrayList<>(chunkSize);
+                    while (pending.size() > PARSER_THREADS * 2)
+                        run.insert(await(pending.poll()));
+                }
+            }
+            if (!records.isEmpty())
+                pending.add(parsers.submit(run.parser(firstRow, records)));
+            while (!pending.isEmpty())
+                run.insert(await(pending.poll()));
+        } finally {
+            parsers.shutdownNow();
+        }
+        return null;
+    }
+
+    // SQLState class 23: the row breaks a constraint (duplicate key, missing foreign key, null).
+    // A batch failure may carry it only on a chained exception.
+    private static boolean isConstraintViolation(SQLException e) {
+        for (SQLException x = e; x != null; x = x.getNextException()) {
+            if (x.getSQLState() != null && x.getSQLState().startsWith("23"))
+                return true;
+            if (x.getCause() instanceof SQLException cause && cause != x.getNextException()
+                    && cause.getSQLState() != null && cause.getSQLState().startsWith("23"))
+                return true;
+        }
+        return false;
+    }
+
+    private static Chunk await(Future<Chunk> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // A row that failed validation; the message says which column and why
+    private static final class Rejected extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        Rejected(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private static final class Chunk {
+        final List<Long> rowNumbers = new ArrayList<>();
+        final List<List<String>> fields = new ArrayList<>();
+        final List<Object[]> values = new ArrayList<>();
+        final List<Long> rejectedRows = new ArrayList<>();
+        final List<String> rejectedReasons = new ArrayList<>();
+        final List<List<String>> rejectedFields = new ArrayList<>();
+
+        void reject(long row, String reason, List<String> rowFields) {
+            rejectedRows.add(row);
+            rejectedReasons.add(reason);
+            rejectedFields.add(rowFields);
+        }
+    }
+
+    // State of one importFile call. Parser threads only read columns and existingRooms,
+    // which are fixed before the first chunk is submitted; the rest is touched by the
+    // importing thread alone.
+    private final class Run {
+        final Target target;
+        final Path reportPath;
+        final Map<String, Integer> columns = new HashMap<>();
+        List<String> header = List.of();
+        Set<Integer> existingRooms = Set.of();
+        final Set<Integer> importedRooms = new HashSet<>();
+        Writer report;
+        long rowsRead;
+        long inserted;
+        long rejected;
+
+        Run(Target target, Path reportPath) {
+            this.target = target;
+            this.reportPath = reportPath;
+        }
+
+        void readHeader(List<String> names) {
+            header = names;
+            for (int i = 0; i < names.size(); i++) {
+                columns.putIfAbsent(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+        }
+
+        // Room numbers already in the database: new rooms must not reuse them, and
+        // reservations may only name them
+        void loadExisting() throws SQLException {
+            if (target != Target.ROOMS && target != Target.RESERVATIONS)
+                return;
+            Set<Integer> rooms = new HashSet<>();
+            try (Connection conn = DatabaseConnection.getConnection();
+                    Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT room_number FROM rooms")) {
+                while (rs.next()) {
+                    rooms.add(rs.getInt(1));
+                }
+            }
+            existingRooms = Collections.unmodifiableSet(rooms);
+        }
+
+        Callable<Chunk> parser(long firstRow, List<String> records) {
+            return () -> {
+                Chunk chunk = new Chunk();
+                long row = firstRow;
+                for (String record : records) {
+                    List<String> fields;
+                    try {
+                        fields = FileHandler.splitCsvRecord(record);
+                    } catch (IllegalArgumentException e) {
+                        chunk.reject(row++, "malformed CSV: " + e.getMessage(), List.of(record));
+                        continue;
+                    }
+                    try {
+                        chunk.values.add(parse(new Fields(fields)));
+                        chunk.rowNumbers.add(row);
+                        chunk.fields.add(fields);
+                    } catch (Rejected e) {
+                        chunk.reject(row, e.getMessage(), fields);
+                    }
+                    row++;
+                }
+                return chunk;
+            };
+        }
+
+        Object[] parse(Fields f) throws Rejected {
+            switch (target) {
+                case ROOMS: {
+                    int number = f.integer("room_number", true, 1, null);
+                    if (existingRooms.contains(number))
+                        throw new Rejected("room_number: room " + number + " already exists");
+                    Room.RoomStatus status = f.enumValue("status", Room.RoomStatus.class);
+                    return new Object[] { number, f.text("type", true, 50), f.amount("price", true),
+                            (status != null ? status : Room.RoomStatus.AVAILABLE).name() };
+                }
+                case GUESTS:
+                    return new Object[] { f.text("full_name", true, 100), f.phone("phone"), f.email("email"),
+                            f.text("id_number", false, 50), f.text("address", false, 1000),
+                            Guest.GuestStatus.REGISTERED.name() };
+                case INVENTORY: {
+                    Integer quantity = f.integer("quantity", false, 0, 0);
+                    Integer minLevel = f.integer("min_level", false, 0, 10);
+                    return new Object[] { f.text("name", true, 100), f.text("category", false, 50), quantity,
+                            minLevel, f.text("supplier", false, 100) };
+                }
+                case RESERVATIONS: {
+                    Integer room = f.integer("room_number", false, 1, null);
+                    if (room != null && !existingRooms.contains(room))
+                        throw new Rejected("room_number: no room " + room);
+                    LocalDate checkIn = f.date("check_in", true);
+                    LocalDate checkOut = f.date("check_out", true);
+                    if (!checkOut.isAfter(checkIn))
+                        throw new Rejected("check_out: must be after check_in");
+                    Reservation.Status status = f.enumValue("status", Reservation.Status.class);
+                    return new Object[] { f.text("guest_name", true, 100), f.phone("phone"), f.email("email"),
+                            f.text("room_type", true, 50), room, Date.valueOf(checkIn), Date.valueOf(checkOut),
+                            f.integer("num_guests", false, 1, 1),
+                            (status != null ? status : Reservation.Status.PENDING).name() };
+                }
+                default:
+                    throw new IllegalStateException("Unknown import target " + target);
+            }
+        }
+
+        void insert(Chunk chunk) throws IOException, SQLException {
+            rowsRead += chunk.rowNumbers.size() + chunk.rejectedRows.size();
+            // Duplicates within the file can only be seen here, in file order
+            List<Integer> accepted = new ArrayList<>(chunk.values.size());
+            for (int i = 0; i < chunk.values.size(); i++) {
+                if (target == Target.ROOMS && !importedRooms.add((Integer) chunk.values.get(i)[0])) {
+                    chunk.reject(chunk.rowNumbers.get(i), "room_number: room " + chunk.values.get(i)[0]
+                            + " appears earlier in the file", chunk.fields.get(i));
+                } else {
+                    accepted.add(i);
+                }
+            }
+            SQLException failure = null;
+            if (!accepted.isEmpty()) {
+                try {
+                    Tx.run(conn -> {
+                        try (PreparedStatement pstmt = conn.prepareStatement(target.insertSql)) {
+                            for (int i : accepted) {
+                                bind(pstmt, chunk.values.get(i));
+                                pstmt.addBatch();
+                            }
+                            pstmt.executeBatch();
+                        }
+                    });
+                    inserted += accepted.size();
+                } catch (SQLException e) {
+                    failure = isConstraintViolation(e) ? insertOneByOne(chunk, accepted) : e;
+                }
+            }
+            // Rows rejected before a failure are still reported
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < chunk.rejectedRows.size(); i++) {
+                order.add(i);
+            }
+            order.sort((a, b) -> Long.compare(chunk.rejectedRows.get(a), chunk.rejectedRows.get(b)));
+            for (int i : order) {
+                reject(chunk.rejectedRows.get(i), chunk.rejectedReasons.get(i), chunk.rejectedFields.get(i));
+            }
+            if (failure != null)
+                throw failure;
+            if (progressListener != null)
+                progressListener.onProgress(target, rowsRead, inserted, rejected);
+        }
+
+        // Finds the rows the database refuses so the others still go in. Returns the first
+        // error that isn't about the row itself (connection lost, lock timeout), which ends
+        // the import rather than reject every remaining row.
+        private SQLException insertOneByOne(Chunk chunk, List<Integer> accepted) {
+            for (int i : accepted) {
+                try (Connection conn = DatabaseConnection.getConnection();
+                        PreparedStatement pstmt = conn.prepareStatement(target.insertSql)) {
+                    bind(pstmt, chunk.values.get(i));
+                    pstmt.executeUpdate();
+                    inserted++;
+                } catch (SQLException rowError) {
+                    if (!isConstraintViolation(rowError))
+                        return rowError;
+                    chunk.reject(chunk.rowNumbers.get(i), "database: " + rowError.getMessage(),
+                            chunk.fields.get(i));
+                }
+            }
+            return null;
+        }
+
+        private void bind(PreparedStatement pstmt, Object[] values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    pstmt.setNull(i + 1, target.types[i]);
+                } else {
+                    pstmt.setObject(i + 1, values[i], target.types[i]);
+                }
+            }
+        }
+
+        private void reject(long row, String reason, List<String> fields) throws IOException {
+            rejected++;
+            if (report == null) {
+                report = FileHandler.newWriter(partPath(), false);
+                List<String> columns = new ArrayList<>(List.of("row", "reason"));
+                columns.addAll(header);
+                writeCsvLine(columns);
+            }
+            List<String> line = new ArrayList<>(fields.size() + 2);
+            line.add(String.valueOf(row));
+            line.add(reason);
+            line.addAll(fields);
+            writeCsvLine(line);
+        }
+
+        private void writeCsvLine(List<String> fields) throws IOException {
+            for (int i = 0; i < fields.size(); i++) {
+                if (i > 0)
+                    report.write(',');
+                FileHandler.writeCsvField(report, fields.get(i));
+            }
+            report.write('\n');
+        }
+
+        private Path partPath() {
+            return reportPath.resolveSibling(reportPath.getFileName() + ".part");
+        }
+
+        void closeReport() throws IOException {
+            if (report == null)
+                return;
+            report.close();
+            report = null;
+            FileHandler.moveIntoPlace(partPath(), reportPath);
+        }
+
+        Result result(long start, String error) {
+            return new Result(target, rowsRead, inserted, rejected, rejected > 0 ? reportPath : null,
+                    (System.nanoTime() - start) / 1_000_000, error);
+        }
+
+        // Typed access to one row's fields by column name; blank counts as missing
+        private final class Fields {
+            final List<String> values;
+
+            Fields(List<String> values) {
+                this.values = values;
+            }
+
+            String raw(String column) {
+                Integer index = columns.get(column);
+                if (index == null || index >= values.size())
+                    return null;
+                String value = values.get(index).trim();
+                return value.isEmpty() ? null : value;
+            }
+
+            String text(String column, boolean required, int maxLength) throws Rejected {
+                String value = raw(column);
+                if (value == null && required)
+                    throw new Rejected(column + ": required");
+                if (!ValidationUtils.fitsLength(value, maxLength))
+                    throw new Rejected(column + ": longer than " + maxLength + " characters");
+                return value;
+            }
+
+            Integer integer(String column, boolean required, int min, Integer fallback) throws Rejected {
+                String value = raw(column);
+                if (value == null) {
+                    if (required)
+                        throw new Rejected(column + ": required");
+                    return fallback;
+                }
+                Integer number = ValidationUtils.parseInteger(value);
+                if (number == null)
+                    throw new Rejected(column + ": '" + value + "' is not a whole number");
+                if (number < min)
+                    throw new Rejected(column + ": must be at least " + min);
+                return number;
+            }
+
+            BigDecimal amount(String column, boolean required) throws Rejected {
+                String value = raw(column);
+                if (value == null) {
+                    if (required)
+                        throw new Rejected(column + ": required");
+                    return null;
+                }
+                BigDecimal amount = ValidationUtils.parseAmount(value, 2);
+                if (amount == null)
+                    throw new Rejected(column + ": '" + value + "' is not an amount with up to 2 decimals");
+                if (amount.signum() < 0)
+                    throw new Rejected(column + ": must not be negative");
+                return amount;
+            }
+
+            LocalDate date(String column, boolean required) throws Rejected {
+                String value = raw(column);
+                if (value == null) {
+                    if (required)
+                        throw new Rejected(column + ": required");
+                    return null;
+                }
+                LocalDate date = ValidationUtils.parseDate(value);
+                if (date == null)
+                    throw new Rejected(column + ": '" + value + "' is not a date (yyyy-MM-dd)");
+                return date;
+            }
+
+            String email(String column) throws Rejected {
+                String value = text(column, false, 100);
+                if (value != null && !ValidationUtils.isValidEmail(value))
+                    throw new Rejected(column + ": '" + value + "' is not an email address");
+                return value;
+            }
+
+            String phone(String column) throws Rejected {
+                String value = text(column, false, 20);
+                if (value != null && !ValidationUtils.isValidPhone(value))
+                    throw new Rejected(column + ": '" + value + "' is not a phone number");
+                return value;
+            }
+
+            <E extends Enum<E>> E enumValue(String column, Class<E> type) throws Rejected {
+                String value = raw(column);
+                if (value == null)
+                    return null;
+                E constant = ValidationUtils.parseEnum(type, value);
+                if (constant == null)
+                    throw new Rejected(column + ": '" + value + "' is not one of "
+                            + Arrays.toString(type.getEnumConstants()));
+                return constant;
+            }
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.orionhotel.utils;
+
+import com.orionhotel.database.DatabaseConnection;
+import com.orionhotel.database.KeysetQuery;
+import com.orionhotel.database.QueryStream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+// Bulk extracts of the operational tables to CSV (with a header row) or JSON Lines, one file
+// per dataset, optionally gzip-compressed. Rows are read through QueryStream and written as
+// they arrive, so memory use doesn't grow with the table. Each file is written under a
+// ".part" name and renamed when complete, so a reader never picks up half an export.
+//
+// Rows are exported column by column from SQL rather than through the model classes, which
+// don't carry every column (and would cost an object per row on multi-million-row logs).
+// The column lists are fixed so the file layout doesn't change when the schema gains columns.
+public class DataExporter {
+
+    public enum Format {
+        CSV(".csv"), JSONL(".jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    // Date ranges filter on dateColumn. Bills go by when they last changed, so a bill opened one
+    // day and paid another is in both days' extracts. Guests are exported without their national ID.
+    public enum Dataset {
+        GUESTS("guests", "guest_id, full_name, phone, email, address, room_number, check_in_date, "
+                + "check_out_date, status", "guests", "guest_id", "check_in_date", false),
+        RESERVATIONS("reservations", "reservation_id, guest_name, phone, email, room_type, room_number, check_in, "
+                + "check_out, num_guests, status", "reservations", "reservation_id", "check_in", false),
+        BILLS("bills", "bill_id, guest_id, guest_name, room_charges, services_total, taxes, discount, total_amount, "
+                + "status, method, bill_date, updated_at", "bills", "bill_id", "updated_at", true),
+        SERVICE_CHARGES("service_charges", "sc.charge_id, sc.bill_id, b.guest_id, sc.service_type, sc.amount, "
+                + "sc.charge_date, b.bill_date", "service_charges sc JOIN bills b ON b.bill_id = sc.bill_id",
+                "sc.charge_id", "sc.charge_date", false),
+        INVENTORY_LOGS("inventory_logs", "l.log_id, l.item_id, i.name AS item_name, l.type, l.amount, l.timestamp",
+                "inventory_logs l LEFT JOIN inventory i ON i.item_id = l.item_id", "l.log_id", "l.timestamp", true),
+        HOUSEKEEPING_TASKS("housekeeping_tasks", "task_id, room_number, type, status, staff_id, created_at",
+                "housekeeping_tasks", "task_id", "created_at", true),
+        MAINTENANCE_REQUESTS("maintenance_requests", "request_id, room_number, issue_type, description, priority, "
+                + "status, tech_id, created_at", "maintenance_requests", "request_id", "created_at", true);
+
+        private final String table;
+        private final String columns;
+        private final String from;
+        private final String key;
+        private final String dateColumn;
+        private final boolean timestampColumn;
+        private final String[] header;
+
+        Dataset(String table, String columns, String from, String key, String dateColumn, boolean timestampColumn) {
+            this.table = table;
+            this.columns = columns;
+            this.from = from;
+            this.key = key;
+            this.dateColumn = dateColumn;
+            this.timestampColumn = timestampColumn;
+            String[] parts = columns.split(",");
+            this.header = new String[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                String column = parts[i].trim();
+                int alias = column.toUpperCase(Locale.ROOT).lastIndexOf(" AS ");
+                header[i] = alias >= 0 ? column.substring(alias + 4).trim()
+                        : column.substring(column.lastIndexOf('.') + 1);
+            }
+        }
+
+        public String getFileName() {
+            return table;
+        }
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        // estimatedTotal is -1 when unknown (date-filtered exports)
+        void onProgress(Dataset dataset, long rows, long estimatedTotal);
+    }
+
+    public static class Result {
+        public final Dataset dataset;
+        public final Path path;
+        public final long rows;
+        public final long bytes;
+        public final long millis;
+
+        public Result(Dataset dataset, Path path, long rows, long bytes, long millis) {
+            this.dataset = dataset;
+            this.path = path;
+            this.rows = rows;
+            this.bytes = bytes;
+            this.millis = millis;
+        }
+    }
+
+    private static final int PROGRESS_EVERY = 10_000;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Format format;
+    private final boolean gzip;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private ProgressListener progressListener;
+
+    public DataExporter(Format format, boolean gzip) {
+        this.format = format;
+        this.gzip = gzip;
+    }
+
+    // Rows dated from 'from' up to, not including, 'to'; either may be null for no bound
+    public void setDateRange(LocalDate from, LocalDate to) {
+        this.fromDate = from;
+        this.toDate = to;
+    }
+
+    // Called on the exporting thread every 10,000 rows and once at the end of each dataset
+    public void setProgressListener(ProgressListener listener) {
+        this.progressListener = listener;
+    }
+
+    // One file per dataset in directory, named like bills.csv.gz
+    public List<Result> exportAll(Collection<Dataset> datasets, Path directory) throws IOException, SQLException {
+        Files.createDirectories(directory);
+        List<Result> results = new ArrayList<>();
+        for (Dataset dataset : datasets) {
+            String name = dataset.getFileName() + format.getExtension() + (gzip ? ".gz" : "");
+            results.add(export(dataset, directory.resolve(name)));
+        }
+        return results;
+    }
+
+    public Result export(Dataset dataset, Path target) throws IOException, SQLException {
+        long start = System.nanoTime();
+        List<Object> params = new ArrayList<>();
+        Object from = bound(dataset, fromDate);
+        Object to = bound(dataset, toDate);
+        String sql = "SELECT " + dataset.columns + " FROM " + dataset.from
+                + QueryStream.range(dataset.dateColumn, from, to, params) + " ORDER BY " + dataset.key;
+        long estimate = from == null && to == null ? estimateRows(dataset) : -1;
+
+        Path temp = target.resolveSibling(target.getFileName() + ".part");
+        long rows;
+        try (Writer out = FileHandler.newWriter(temp, gzip)) {
+            RowWriter writer = new RowWriter(dataset, out, estimate);
+            writer.writeHeader();
+            try {
+                rows = QueryStream.forEach(sql, params, writer::read, writer::write);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } catch (IOException | SQLException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        FileHandler.moveIntoPlace(temp, target);
+        if (progressListener != null && (rows == 0 || rows % PROGRESS_EVERY != 0))
+            progressListener.onProgress(dataset, rows, estimate);
+        return new Result(dataset, target, rows, Files.size(target), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Timestamp columns compare against the start of the day
+    private static Object bound(Dataset dataset, LocalDate date) {
+        if (date == null)
+            return null;
+        return dataset.timestampColumn ? date.atStartOfDay() : date;
+    }
+
+    private static long estimateRows(Dataset dataset) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return KeysetQuery.estimateRows(conn, dataset.table);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    // Formats one result row as text, then writes it as a CSV line or a JSON object line
+    private final class RowWriter {
+        private static final int TEXT = 0, NUMBER = 1, DECIMAL = 2, BOOLEAN = 3, DATE = 4, TIMESTAMP = 5;
+
+        private final Dataset dataset;
+        private final Writer out;
+        private final long estimate;
+        private int[] kinds;
+        private long rows;
+
+        RowWriter(Dataset dataset, Writer out, long estimate) {
+            this.dataset = dataset;
+            this.out = out;
+            this.estimate = estimate;
+        }
+
+        void writeHeader() throws IOException {
+            if (format != Format.CSV)
+                return;
+            for (int i = 0; i < dataset.header.length; i++) {
+                if (i > 0)
+                    out.write(',');
+                FileHandler.writeCsvField(out, dataset.header[i]);
+            }
+            out.write('\n');
+        }
+
+        String[] read(ResultSet rs) throws SQLException {
+            if (kinds == null)
+                kinds = kinds(rs.getMetaData());
+            String[] values = new String[kinds.length];
+            for (int i = 0; i < kinds.length; i++) {
+                int column = i + 1;
+                switch (kinds[i]) {
+                    case DECIMAL: {
+                        BigDecimal v = rs.getBigDecimal(column);
+                        values[i] = v != null ? v.toPlainString() : null;
+                        break;
+                    }
+                    case BOOLEAN: {
+                        boolean v = rs.getBoolean(column);
+                        values[i] = rs.wasNull() ? null : String.valueOf(v);
+                        break;
+                    }
+                    case DATE: {
+                        Date v = rs.getDate(column);
+                        values[i] = v != null ? v.toString() : null;
+                        break;
+                    }
+                    case TIMESTAMP: {
+                        Timestamp v = rs.getTimestamp(column);
+                        values[i] = v != null ? v.toLocalDateTime().format(TIMESTAMP_FORMAT) : null;
+                        break;
+                    }
+                    default:
+                        values[i] = rs.getString(column);
+                }
+            }
+            return values;
+        }
+
+        void write(String[] values) {
+            try {
+                if (format == Format.CSV) {
+                    for (int i = 0; i < values.length; i++) {
+                        if (i > 0)
+                            out.write(',');
+                        FileHandler.writeCsvField(out, values[i]);
+                    }
+                    out.write('\n');
+                } else {
+                    out.write('{');
+                    for (int i = 0; i < values.length; i++) {
+                        if (i > 0)
+                            out.write(',');
+                        FileHandler.writeJsonString(out, dataset.header[i]);
+                        out.write(':');
+                        boolean bare = kinds[i] == NUMBER || kinds[i] == DECIMAL || kinds[i] == BOOLEAN;
+                        if (values[i] != null && bare) {
+                            out.write(values[i]);
+                        } else {
+                            FileHandler.writeJsonString(out, values[i]);
+                        }
+                    }
+                    out.write("}\n");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (++rows % PROGRESS_EVERY == 0 && progressListener != null)
+                progressListener.onProgress(dataset, rows, estimate);
+        }
+
+        private int[] kinds(ResultSetMetaData meta) throws SQLException {
+            int[] result = new int[meta.getColumnCount()];
+            for (int i = 0; i < result.length; i++) {
+                switch (meta.getColumnType(i + 1)) {
+                    case Types.TINYINT:
+                    case Types.SMALLINT:
+                    case Types.INTEGER:
+                    case Types.BIGINT:
+                    case Types.REAL:
+                    case Types.FLOAT:
+                    case Types.DOUBLE:
+                        result[i] = NUMBER;
+                        break;
+                    case Types.DECIMAL:
+                    case Types.NUMERIC:
+                        result[i] = DECIMAL;
+                        break;
+                    case Types.BOOLEAN:
+                    case Types.BIT:
+                        result[i] = BOOLEAN;
+                        break;
+                    case Types.DATE:
+                        result[i] = DATE;
+                        break;
+                    case Types.TIMESTAMP:
+                    case Types.TIMESTAMP_WITH_TIMEZONE:
+                        result[i] = TIMESTAMP;
+                        break;
+                    default:
+                        result[i] = TEXT;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -1,5 +1,197 @@
 package com.orionhotel.utils;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
 public class FileHandler {
-    // File handling utilities here
-}
\ No newline at end of file
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // UTF-8 text writer over a file channel, optionally gzip-compressed; replaces the file
+    public static Writer newWriter(Path path, boolean gzip) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        OutputStream out = Channels.newOutputStream(channel);
+        if (gzip)
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    // UTF-8 text reader over a file channel; files ending in .gz are decompressed
+    public static BufferedReader newReader(Path path) throws IOException {
+        InputStream in = Channels.newInputStream(FileChannel.open(path, StandardOpenOption.READ));
+        if (path.getFileName().toString().endsWith(".gz"))
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    // The next CSV record as raw text, joining lines while inside a quoted field; null at the end.
+    // A record still inside quotes at the end of the file is returned as is, and splitCsvRecord
+    // rejects it. Cheap enough to run on one thread while splitCsvRecord runs on others.
+    public static String readCsvRecord(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        if (line == null)
+            return null;
+        if (line.indexOf('"') < 0)
+            return line;
+        StringBuilder record = new StringBuilder(line);
+        while (endsInsideQuotes(record)) {
+            String next = in.readLine();
+            if (next == null)
+                break;
+            record.append('\n').append(next);
+        }
+        return record.toString();
+    }
+
+    // Fields of one record from readCsvRecord, unquoted (RFC 4180). A quote opens a quoted
+    // field only as its first character; a quote anywhere else, text after a closing quote
+    // or a quoted field that never closes throws IllegalArgumentException.
+    public static List<String> splitCsvRecord(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean closed = false; // the current field was quoted and has ended
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                    closed = true;
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                closed = false;
+            } else if (c == '\r') {
+                continue;
+            } else if (closed) {
+                throw new IllegalArgumentException("text after the closing quote in field " + (fields.size() + 1));
+            } else if (c == '"') {
+                if (field.length() > 0)
+                    throw new IllegalArgumentException("stray quote in field " + (fields.size() + 1));
+                quoted = true;
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted)
+            throw new IllegalArgumentException("quoted field " + (fields.size() + 1) + " is never closed");
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Same quote rules as splitCsvRecord, so a stray quote never pulls the next lines in
+    private static boolean endsInsideQuotes(CharSequence text) {
+        boolean quoted = false;
+        boolean fieldStart = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < text.length() && text.charAt(i + 1) == '"')
+                        i++;
+                    else
+                        quoted = false;
+                }
+            } else if (c == ',') {
+                fieldStart = true;
+            } else if (c != '\r') {
+                quoted = c == '"' && fieldStart;
+                fieldStart = false;
+            }
+        }
+        return quoted;
+    }
+
+    // Replaces target with source, atomically where the file system allows it
+    public static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // One CSV field (RFC 4180): quoted only when it contains a comma, quote or line break; null is empty
+    public static void writeCsvField(Writer out, String value) throws IOException {
+        if (value == null)
+            return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"')
+                out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    // A JSON string literal, quotes included; null is written as null
+    public static void writeJsonString(Writer out, String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+}
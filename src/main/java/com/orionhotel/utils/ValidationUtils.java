@@ -1,5 +1,76 @@
 package com.orionhotel.utils;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
+
 public class ValidationUtils {
-    // Validation utilities here
-}
\ No newline at end of file
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    // Digits with the usual separators and an optional leading +
+    private static final Pattern PHONE = Pattern.compile("^\\+?[0-9 ()./-]{6,20}$");
+
+    public static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    public static boolean isValidEmail(String email) {
+        return email != null && EMAIL.matcher(email).matches();
+    }
+
+    public static boolean isValidPhone(String phone) {
+        return phone != null && PHONE.matcher(phone).matches();
+    }
+
+    public static boolean fitsLength(String value, int maxLength) {
+        return value == null || value.length() <= maxLength;
+    }
+
+    // Whole number, or null when the text isn't one
+    public static Integer parseInteger(String value) {
+        if (isBlank(value))
+            return null;
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Amount with at most maxScale decimal places, or null when the text isn't one
+    public static BigDecimal parseAmount(String value, int maxScale) {
+        if (isBlank(value))
+            return null;
+        try {
+            BigDecimal amount = new BigDecimal(value.trim()).stripTrailingZeros();
+            if (amount.scale() > maxScale)
+                return null;
+            return amount.scale() < 0 ? amount.setScale(0) : amount;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // ISO date (yyyy-MM-dd), or null when the text isn't one
+    public static LocalDate parseDate(String value) {
+        if (isBlank(value))
+            return null;
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // Constant of the enum named by value, ignoring case, or null
+    public static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        if (isBlank(value))
+            return null;
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value.trim()))
+                return constant;
+        }
+        return null;
+    }
+}
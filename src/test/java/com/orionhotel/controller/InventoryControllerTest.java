@@ -0,0 +1,134 @@
+package com.orionhotel.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.orionhotel.database.DatabaseConfig;
+import com.orionhotel.database.DatabaseConnection;
+import com.orionhotel.model.InventoryItem;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Runs against a throwaway H2 database in a temporary directory
+class InventoryControllerTest {
+
+    @TempDir
+    static Path dbDir;
+
+    private static final AtomicInteger names = new AtomicInteger();
+    private final InventoryController controller = new InventoryController();
+
+    @BeforeAll
+    static void openDatabase() {
+        System.setProperty("orion.db.h2.path", dbDir.resolve("inventory").toString());
+        DatabaseConnection.reconfigure(DatabaseConfig.load());
+        DatabaseConnection.initializeDatabase();
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        DatabaseConnection.shutdown();
+        System.clearProperty("orion.db.h2.path");
+    }
+
+    @Test
+    void concurrentConsumesNeverTakeMoreThanTheStock() throws Exception {
+        int itemId = addItem(1_000);
+        ExecutorService stations = Executors.newFixedThreadPool(16);
+        List<Callable<Boolean>> consumes = new ArrayList<>();
+        for (int i = 0; i < 1_500; i++) {
+            consumes.add(() -> controller.consumeItem(itemId, 1));
+        }
+        int succeeded = 0;
+        try {
+            for (Future<Boolean> result : stations.invokeAll(consumes)) {
+                if (result.get())
+                    succeeded++;
+            }
+        } finally {
+            stations.shutdown();
+            assertTrue(stations.awaitTermination(30, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1_000, succeeded);
+        assertEquals(0, quantity(itemId));
+        assertEquals(1_000, consumeLogs(itemId));
+    }
+
+    @Test
+    void cartWithOneShortItemChangesNothing() throws SQLException {
+        int towels = addItem(10);
+        int soap = addItem(2);
+        int shampoo = addItem(10);
+        Map<Integer, Integer> cart = new LinkedHashMap<>();
+        cart.put(towels, 3);
+        cart.put(soap, 5); // only 2 in stock
+        cart.put(shampoo, 1);
+
+        assertFalse(controller.consumeItems(cart));
+
+        assertEquals(10, quantity(towels));
+        assertEquals(2, quantity(soap));
+        assertEquals(10, quantity(shampoo));
+        assertEquals(0, consumeLogs(towels) + consumeLogs(soap) + consumeLogs(shampoo));
+    }
+
+    @Test
+    void cartWithEnoughStockTakesEveryItem() throws SQLException {
+        int towels = addItem(10);
+        int soap = addItem(5);
+
+        assertTrue(controller.consumeItems(Map.of(towels, 3, soap, 5)));
+
+        assertEquals(7, quantity(towels));
+        assertEquals(0, quantity(soap));
+        assertEquals(2, consumeLogs(towels) + consumeLogs(soap));
+    }
+
+    private int addItem(int quantity) {
+        String name = "Test item " + names.incrementAndGet();
+        controller.addItem(new InventoryItem(0, name, "Amenities", quantity, 0, "Supplier"));
+        for (InventoryItem item : controller.getAllItems()) {
+            if (item.getItemName().equals(name))
+                return item.getItemId();
+        }
+        throw new IllegalStateException(name + " was not added");
+    }
+
+    private static int quantity(int itemId) throws SQLException {
+        return queryInt("SELECT quantity FROM inventory WHERE item_id = ?", itemId);
+    }
+
+    private static int consumeLogs(int itemId) throws SQLException {
+        return queryInt("SELECT COUNT(*) FROM inventory_logs WHERE item_id = ? AND type = 'CONSUME'", itemId);
+    }
+
+    private static int queryInt(String sql, int itemId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, itemId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
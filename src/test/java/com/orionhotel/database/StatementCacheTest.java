@@ -0,0 +1,96 @@
+package com.orionhotel.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StatementCacheTest {
+
+    private static final String SELECT = "SELECT id FROM t WHERE id >= ? ORDER BY id";
+
+    private Connection conn;
+    private StatementCache cache;
+    private final AtomicLong hits = new AtomicLong();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:stmtcache;DB_CLOSE_DELAY=-1");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS t");
+            stmt.execute("CREATE TABLE t (id INT PRIMARY KEY)");
+            stmt.execute("INSERT INTO t VALUES (1), (2), (3)");
+        }
+        cache = new StatementCache(conn, 8, hits, new AtomicLong(), new AtomicLong());
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        cache.clear();
+        conn.close();
+    }
+
+    @Test
+    void reusesStatementAfterClose() throws SQLException {
+        cache.prepare(conn, SELECT, -1).close();
+        cache.prepare(conn, SELECT, -1).close();
+        assertEquals(1, hits.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void reclaimedHandleCannotTouchNextBorrowersStatement() throws SQLException {
+        PreparedStatement leaked = cache.prepare(conn, SELECT, -1);
+        leaked.setInt(1, 1);
+        cache.releaseAll(); // connection returned to the pool without closing the statement
+
+        PreparedStatement next = cache.prepare(conn, SELECT, -1);
+        assertEquals(1, hits.get());
+        next.setInt(1, 2);
+
+        assertTrue(leaked.isClosed());
+        assertThrows(SQLException.class, leaked::executeQuery);
+        assertThrows(SQLException.class, () -> leaked.setInt(1, 3));
+        leaked.close(); // must not clear the parameters of the new loan
+
+        assertEquals(2, count(next));
+        next.close();
+    }
+
+    @Test
+    void changedLimitsAreResetForNextBorrower() throws SQLException {
+        PreparedStatement first = cache.prepare(conn, SELECT, -1);
+        first.setMaxRows(1);
+        first.setQueryTimeout(5);
+        first.setInt(1, 1);
+        assertEquals(1, count(first));
+        first.close();
+
+        PreparedStatement second = cache.prepare(conn, SELECT, -1);
+        assertEquals(1, hits.get());
+        assertEquals(0, second.getMaxRows());
+        assertEquals(0, second.getQueryTimeout());
+        second.setInt(1, 1);
+        assertEquals(3, count(second));
+        second.close();
+    }
+
+    private static int count(PreparedStatement pstmt) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next())
+                rows++;
+        }
+        return rows;
+    }
+}
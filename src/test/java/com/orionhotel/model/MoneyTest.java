@@ -0,0 +1,94 @@
+package com.orionhotel.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency JPY = Currency.getInstance("JPY");
+
+    @Test
+    void toMinorRoundsDoublesFromTheirShortestDecimal() {
+        assertEquals(29, Money.toMinor(0.285, 2)); // 0.285 is 0.28499999... in binary
+        assertEquals(1005, Money.toMinor(10.045, 2));
+        assertEquals(-29, Money.toMinor(-0.285, 2)); // HALF_UP rounds away from zero
+        assertEquals(10, Money.toMinor(0.1, 2));
+        assertEquals(30, Money.toMinor(0.1 + 0.2, 2));
+        assertEquals(1235, Money.toMinor(1234.5, 0));
+    }
+
+    @Test
+    void toMinorWithBigDecimal() {
+        assertEquals(12346, Money.toMinor(new BigDecimal("123.455"), 2, RoundingMode.HALF_UP));
+        assertEquals(12345, Money.toMinor(new BigDecimal("123.455"), 2, RoundingMode.HALF_DOWN));
+        assertEquals(12346, Money.toMinor(new BigDecimal("123.455"), 2, RoundingMode.HALF_EVEN));
+        assertEquals(12344, Money.toMinor(new BigDecimal("123.445"), 2, RoundingMode.HALF_EVEN));
+        assertEquals(0, Money.toMinor(null, 2, RoundingMode.HALF_UP));
+        assertThrows(ArithmeticException.class,
+                () -> Money.toMinor(new BigDecimal("1.005"), 2, RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    void divideMatchesBigDecimalForEveryRoundingMode() {
+        long[] dividends = { 0, 1, 5, 7, 10, 15, 25, 35, -1, -5, -7, -15, -25, -35, 999_999, -1_000_001 };
+        long[] divisors = { 1, 2, 3, 10, 1_000_000 };
+        RoundingMode[] modes = { RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+                RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN };
+        for (long dividend : dividends) {
+            for (long divisor : divisors) {
+                for (RoundingMode mode : modes) {
+                    long expected = BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, mode)
+                            .longValueExact();
+                    assertEquals(expected, Money.divide(dividend, divisor, mode),
+                            dividend + " / " + divisor + " " + mode);
+                }
+            }
+        }
+    }
+
+    @Test
+    void divideWithUnnecessaryRoundingOnlyFailsWhenInexact() {
+        assertEquals(4, Money.divide(12, 3, RoundingMode.UNNECESSARY));
+        assertThrows(ArithmeticException.class, () -> Money.divide(10, 3, RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    void applyRateRoundsTaxToTheCent() {
+        long twelveAndAHalf = Money.ratePpm(0.125);
+        assertEquals(125_000, twelveAndAHalf);
+        assertEquals(1250, Money.applyRate(10_000, twelveAndAHalf, RoundingMode.HALF_UP));
+        // 1.99 * 12.5% = 0.24875
+        assertEquals(25, Money.applyRate(199, twelveAndAHalf, RoundingMode.HALF_UP));
+        assertEquals(24, Money.applyRate(199, twelveAndAHalf, RoundingMode.DOWN));
+        // 0.04 * 12.5% = 0.005, exactly half a cent
+        assertEquals(1, Money.applyRate(4, twelveAndAHalf, RoundingMode.HALF_UP));
+        assertEquals(0, Money.applyRate(4, twelveAndAHalf, RoundingMode.HALF_EVEN));
+        assertEquals(-1, Money.applyRate(-4, twelveAndAHalf, RoundingMode.HALF_UP));
+        // 8.25%, a rate a double can't hold exactly
+        assertEquals(82_500, Money.ratePpm(0.0825));
+        assertEquals(825, Money.applyRate(10_000, Money.ratePpm(0.0825), RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void applyRateFallsBackToBigDecimalWhenTheProductOverflows() {
+        long huge = Long.MAX_VALUE / 1_000;
+        long expected = BigDecimal.valueOf(huge).multiply(BigDecimal.valueOf(125_000))
+                .divide(BigDecimal.valueOf(Money.PPM), 0, RoundingMode.HALF_UP).longValueExact();
+        assertEquals(expected, Money.applyRate(huge, 125_000, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void instancesUseTheCurrencyDigits() {
+        assertEquals(1999, Money.of(19.99, USD).getMinorUnits());
+        assertEquals(2000, Money.of(1999.5, JPY).getMinorUnits());
+        assertEquals(new BigDecimal("19.99"), Money.ofMinor(1999, USD).toBigDecimal());
+        assertEquals(Money.ofMinor(250, USD), Money.ofMinor(2000, USD).applyRate(125_000, RoundingMode.HALF_UP));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMinor(1, USD).plus(Money.ofMinor(1, JPY)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.orionhotel.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class FileHandlerTest {
+
+    private static List<String> records(String text) throws IOException {
+        BufferedReader in = new BufferedReader(new StringReader(text));
+        List<String> records = new ArrayList<>();
+        String record;
+        while ((record = FileHandler.readCsvRecord(in)) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    @Test
+    void readsOneRecordPerLine() throws IOException {
+        assertEquals(List.of("a,b", "c,d"), records("a,b\nc,d\n"));
+        assertEquals(List.of("a,b", "c,d"), records("a,b\r\nc,d"));
+        assertNull(FileHandler.readCsvRecord(new BufferedReader(new StringReader(""))));
+    }
+
+    @Test
+    void joinsLinesInsideAQuotedField() throws IOException {
+        assertEquals(List.of("1,\"first\nsecond\",x", "2,y"), records("1,\"first\nsecond\",x\n2,y\n"));
+        // An escaped quote at the end of a line doesn't close the field
+        assertEquals(List.of("1,\"say \"\"hi\"\"\nthere\"", "2"), records("1,\"say \"\"hi\"\"\nthere\"\n2\n"));
+    }
+
+    @Test
+    void strayQuoteMidFieldDoesNotSwallowTheFollowingRows() throws IOException {
+        List<String> records = records("1,12\" pizza,x\n2,plain,y\n3,more,z\n");
+        assertEquals(List.of("1,12\" pizza,x", "2,plain,y", "3,more,z"), records);
+        assertThrows(IllegalArgumentException.class, () -> FileHandler.splitCsvRecord(records.get(0)));
+        assertEquals(List.of("2", "plain", "y"), FileHandler.splitCsvRecord(records.get(1)));
+    }
+
+    @Test
+    void quoteAfterAClosedFieldDoesNotSwallowTheFollowingRows() throws IOException {
+        List<String> records = records("1,\"a\"b\",x\n2,ok,y\n");
+        assertEquals(List.of("1,\"a\"b\",x", "2,ok,y"), records);
+        assertThrows(IllegalArgumentException.class, () -> FileHandler.splitCsvRecord(records.get(0)));
+    }
+
+    @Test
+    void unterminatedQuoteAtEndOfFileIsRejected() throws IOException {
+        List<String> records = records("1,ok\n2,\"never closed\n3,more\n");
+        assertEquals(List.of("1,ok", "2,\"never closed\n3,more"), records);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> FileHandler.splitCsvRecord(records.get(1)));
+        assertEquals("quoted field 2 is never closed", e.getMessage());
+    }
+
+    @Test
+    void splitsAndUnquotesFields() {
+        assertEquals(List.of("a", "b", "c"), FileHandler.splitCsvRecord("a,b,c"));
+        assertEquals(List.of("", "", ""), FileHandler.splitCsvRecord(",,"));
+        assertEquals(List.of("a,b", "say \"hi\"", ""), FileHandler.splitCsvRecord("\"a,b\",\"say \"\"hi\"\"\",\"\""));
+        assertEquals(List.of("line one\nline two", "x"), FileHandler.splitCsvRecord("\"line one\nline two\",x"));
+        assertEquals(List.of("a", "b"), FileHandler.splitCsvRecord("a,b\r"));
+    }
+
+    @Test
+    void rejectsQuotesOutsideFieldStart() {
+        IllegalArgumentException stray = assertThrows(IllegalArgumentException.class,
+                () -> FileHandler.splitCsvRecord("a,b\"c"));
+        assertEquals("stray quote in field 2", stray.getMessage());
+        IllegalArgumentException after = assertThrows(IllegalArgumentException.class,
+                () -> FileHandler.splitCsvRecord("\"a\" ,b"));
+        assertEquals("text after the closing quote in field 1", after.getMessage());
+    }
+
+    @Test
+    void writtenFieldsReadBackUnchanged() throws IOException {
+        String[] values = { "plain", "with,comma", "with \"quotes\"", "two\nlines", "" };
+        StringWriter out = new StringWriter();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                out.write(',');
+            FileHandler.writeCsvField(out, values[i]);
+        }
+        out.write('\n');
+        List<String> records = records(out.toString());
+        assertEquals(1, records.size());
+        assertEquals(List.of(values), FileHandler.splitCsvRecord(records.get(0)));
+    }
+}